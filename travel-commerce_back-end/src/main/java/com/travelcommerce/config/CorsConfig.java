@@ -13,6 +13,7 @@ public class CorsConfig {
         config.addAllowedOrigin("http://localhost:5173"); // React Vite
         config.addAllowedHeader("*");
         config.addAllowedMethod("*");
+        config.addExposedHeader("Idempotent-Replayed");
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
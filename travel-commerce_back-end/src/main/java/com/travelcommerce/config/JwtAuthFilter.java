@@ -16,19 +16,28 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     @Autowired private JwtUtil jwtUtil;
     @Autowired private JwtUserDetailsService userDetailsService;
 
+    private static final String STREAM_PATH = "/api/notifications/stream";
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         String header = request.getHeader("Authorization");
+        String userId = null;
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
             if (jwtUtil.validateToken(token)) {
-                String userId = jwtUtil.getUserIdFromToken(token);
-                UserDetails ud = userDetailsService.loadUserByUsername(userId);
-                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(ud.getUsername(), null, ud.getAuthorities());
-                SecurityContextHolder.getContext().setAuthentication(auth);
+                userId = jwtUtil.getUserIdFromToken(token);
             }
+        } else if (STREAM_PATH.equals(request.getRequestURI()) && request.getParameter("ticket") != null) {
+            // EventSource can't set headers, so the notification stream takes a short-lived
+            // stream ticket (never the session token) as ?ticket=
+            userId = jwtUtil.getUserIdFromStreamTicket(request.getParameter("ticket"));
+        }
+        if (userId != null) {
+            UserDetails ud = userDetailsService.loadUserByUsername(userId);
+            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(ud.getUsername(), null, ud.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(auth);
         }
         filterChain.doFilter(request, response);
     }
@@ -1,5 +1,6 @@
 package com.travelcommerce.config;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.JwtException;
@@ -19,6 +20,12 @@ public class JwtUtil {
     @Value("${security.jwt.expiration}")
     private long jwtExpirationMs;
 
+    // Scope claim of notification stream tickets; session tokens carry no scope.
+    static final String STREAM_SCOPE = "notification-stream";
+
+    @Value("${security.jwt.stream-ticket-ms:60000}")
+    private long streamTicketMs;
+
     private Key getSigningKey() {
         return Keys.hmacShaKeyFor(jwtSecret.getBytes());
     }
@@ -36,15 +43,48 @@ public class JwtUtil {
                 .compact();
     }
 
+    /**
+     * Short-lived token that only opens the notification stream. EventSource can't send an
+     * Authorization header, so this goes in the stream URL instead of the session token;
+     * anything that logs the URL sees a credential that expires within a minute and is
+     * refused everywhere else.
+     */
+    public String generateStreamTicket(String userId) {
+        Date now = new Date();
+        return Jwts.builder()
+                .setSubject(userId)
+                .claim("scope", STREAM_SCOPE)
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + streamTicketMs))
+                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    public long getStreamTicketMs() {
+        return streamTicketMs;
+    }
+
+    // Session tokens only: a stream ticket is not accepted as a Bearer token.
     public boolean validateToken(String token) {
+        Claims claims = parse(token);
+        return claims != null && claims.get("scope") == null;
+    }
+
+    /** User id of a valid stream ticket, or null. */
+    public String getUserIdFromStreamTicket(String ticket) {
+        Claims claims = parse(ticket);
+        return claims != null && STREAM_SCOPE.equals(claims.get("scope")) ? claims.getSubject() : null;
+    }
+
+    private Claims parse(String token) {
         try {
-            Jwts.parserBuilder()
+            return Jwts.parserBuilder()
                     .setSigningKey(getSigningKey())
                     .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException e) {
-            return false;
+                    .parseClaimsJws(token)
+                    .getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
         }
     }
 
@@ -0,0 +1,57 @@
+package com.travelcommerce.config;
+
+import com.travelcommerce.model.Booking;
+import com.travelcommerce.service.BookingArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the @Indexed / @CompoundIndex indexes declared on the models.
+ *
+ * We don't use spring.data.mongodb.auto-index-creation because it runs while the
+ * MongoTemplate is being built and blocks startup when MongoDB is unreachable.
+ * ensureIndex is idempotent, so running this on every boot is safe. The booking archive
+ * gets the same indexes as the bookings collection, since it is read with the same queries.
+ */
+@Component
+public class MongoIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Async(TaskConfig.MAINTENANCE_EXECUTOR)
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        var mappingContext = mongoTemplate.getConverter().getMappingContext();
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) continue;
+            try {
+                IndexOperations ops = mongoTemplate.indexOps(entity.getType());
+                resolver.resolveIndexFor(entity.getType()).forEach(ops::ensureIndex);
+            } catch (Exception e) {
+                logger.warn("Could not ensure indexes for {}: {}", entity.getCollection(), e.getMessage());
+            }
+        }
+        try {
+            IndexOperations archive = mongoTemplate.indexOps(BookingArchiveService.ARCHIVE_COLLECTION);
+            resolver.resolveIndexFor(Booking.class).forEach(archive::ensureIndex);
+        } catch (Exception e) {
+            logger.warn("Could not ensure indexes for {}: {}", BookingArchiveService.ARCHIVE_COLLECTION, e.getMessage());
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.travelcommerce.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -44,6 +46,9 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
 
+                        // Re-dispatch of an already authorized async request (SSE, streamed exports)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Allow images for <img> without JWT
                         .requestMatchers("/uploads/**").permitAll()
 
@@ -52,9 +57,11 @@ public class SecurityConfig {
 
                         // Public services listing and single service
                         .requestMatchers("/api/services", "/api/services/*").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/services/*/availability").permitAll()
 
                         // Public reviews for any service
                         .requestMatchers("/api/reviews/service/*").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/reviews/service/*/page", "/api/reviews/service/*/histogram", "/api/reviews/*/replies").permitAll()
 
                         // Public AI search
                         .requestMatchers("/api/ai/smart-search").permitAll()
@@ -0,0 +1,77 @@
+package com.travelcommerce.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Enables @Async background work and @Scheduled maintenance jobs.
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class TaskConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskConfig.class);
+
+    public static final String MAINTENANCE_EXECUTOR = "maintenanceExecutor";
+    public static final String NOTIFICATION_EXECUTOR = "notificationExecutor";
+    public static final String BROADCAST_EXECUTOR = "broadcastExecutor";
+
+    /**
+     * Small pool for startup/repair jobs (index creation, backfills, reconciliation).
+     * A plain daemon pool rather than a ThreadPoolTaskExecutor: those wait for running
+     * tasks when the context stops, and a job stuck on an unreachable MongoDB would
+     * hold up shutdown.
+     */
+    @Bean(name = MAINTENANCE_EXECUTOR, destroyMethod = "shutdownNow")
+    public ExecutorService maintenanceExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("maintenance-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(2, threadFactory);
+    }
+
+    /**
+     * Bounded pool for request side effects (notifications, stream pushes). Work never runs on
+     * the caller's thread: when the queue is full the task is dropped with a warning, so a
+     * backlog can't stall request threads. Notifications are best-effort; connected clients
+     * catch up through Last-Event-ID and the unread count on their next reconnect.
+     */
+    @Bean(name = NOTIFICATION_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService notificationExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("notify-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(
+                2, 4, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1000),
+                threadFactory,
+                (task, pool) -> logger.warn("Notification pool saturated ({} queued), dropping a task",
+                        pool.getQueue().size())
+        );
+    }
+
+    /**
+     * Single worker for admin broadcasts, kept apart so a long fan-out doesn't occupy the
+     * notification pool. A full queue rejects the submit (AbortPolicy) and the endpoint
+     * answers 503.
+     */
+    @Bean(name = BROADCAST_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService broadcastExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("broadcast-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(
+                1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(10),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+}
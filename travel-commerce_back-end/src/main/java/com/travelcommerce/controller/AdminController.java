@@ -3,6 +3,7 @@ package com.travelcommerce.controller;
 import com.travelcommerce.model.ServicePost;
 import com.travelcommerce.repository.ServiceRepository;
 import com.travelcommerce.repository.UserRepository;
+import com.travelcommerce.service.ServicePostService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,6 +14,7 @@ import java.util.List;
 public class AdminController {
     @Autowired private ServiceRepository serviceRepository;
     @Autowired private UserRepository userRepository;
+    @Autowired private ServicePostService servicePostService;
 
     @GetMapping("/pending-posts")
     public ResponseEntity<List<ServicePost>> pendingPosts() {
@@ -21,19 +23,16 @@ public class AdminController {
 
     @PostMapping("/posts/{id}/approve")
     public ResponseEntity<?> approve(@PathVariable String id) {
-        ServicePost s = serviceRepository.findById(id).orElse(null);
+        // Status-only update: a full save would overwrite the $inc-maintained rating counters.
+        ServicePost s = servicePostService.setStatus(id, com.travelcommerce.model.Status.ACTIVE);
         if (s == null) return ResponseEntity.notFound().build();
-        s.setStatus(com.travelcommerce.model.Status.ACTIVE);
-        serviceRepository.save(s);
         return ResponseEntity.ok("Approved");
     }
 
     @PostMapping("/posts/{id}/ban")
     public ResponseEntity<?> ban(@PathVariable String id) {
-        ServicePost s = serviceRepository.findById(id).orElse(null);
+        ServicePost s = servicePostService.setStatus(id, com.travelcommerce.model.Status.BANNED);
         if (s == null) return ResponseEntity.notFound().build();
-        s.setStatus(com.travelcommerce.model.Status.BANNED);
-        serviceRepository.save(s);
         return ResponseEntity.ok("Banned");
     }
 }
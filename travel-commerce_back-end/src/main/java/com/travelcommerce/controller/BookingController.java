@@ -8,19 +8,41 @@ import com.travelcommerce.repository.ServiceRepository;
 import com.travelcommerce.model.ServicePost;
 import com.travelcommerce.dto.ApiResponse;
 import com.travelcommerce.service.NotificationService;
+import com.travelcommerce.service.BookingService;
+import com.travelcommerce.service.ProviderAnalyticsService;
+import com.travelcommerce.service.IdempotencyService;
+import com.travelcommerce.service.BookingArchiveService;
+import com.travelcommerce.model.IdempotencyRecord;
+import com.travelcommerce.dto.BookingFilterDTO;
+import com.travelcommerce.dto.BookingRowDTO;
+import com.travelcommerce.dto.BulkStatusResultDTO;
+import com.travelcommerce.dto.BulkStatusUpdateDTO;
+import com.travelcommerce.model.Notification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.travelcommerce.exceptions.ConflictException;
+import com.travelcommerce.exceptions.ResourceNotFoundException;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/bookings")
 public class BookingController {
 
+    private static final Logger logger = LoggerFactory.getLogger(BookingController.class);
+
     @Autowired
     private BookingRepository bookingRepository;
     
@@ -33,14 +55,71 @@ public class BookingController {
     @Autowired
     private NotificationService notificationService;
 
-    // Create booking
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ProviderAnalyticsService providerAnalytics;
+
+    @Autowired
+    private IdempotencyService idempotency;
+
+    @Autowired
+    private BookingArchiveService bookingArchive;
+
+    // Create booking. With an Idempotency-Key header a retried request gets the first
+    // response back (marked Idempotent-Replayed: true) instead of booking twice.
     @PostMapping
-    public ResponseEntity<?> createBooking(@RequestBody Booking booking, Authentication auth) {
+    public ResponseEntity<?> createBooking(
+            @RequestBody Booking booking,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication auth) {
         if (auth == null) {
             return ResponseEntity.status(401).body(new ApiResponse(false, "Unauthorized", null));
         }
+        if (idempotencyKey == null) {
+            return doCreateBooking(booking, auth.getName());
+        }
 
         String userId = auth.getName();
+        IdempotencyRecord claim;
+        try {
+            claim = idempotency.claim(userId, idempotencyKey, requestFingerprint(booking));
+        } catch (RuntimeException e) {
+            return transitionFailed(e);
+        }
+        if (claim.isCompleted()) {
+            return idempotency.replay(claim);
+        }
+
+        // doCreateBooking only throws before the booking is saved (side effects after the save
+        // are caught inside), so releasing the key here can't let a retry book twice.
+        ResponseEntity<?> response;
+        try {
+            response = doCreateBooking(booking, userId);
+        } catch (RuntimeException e) {
+            idempotency.release(claim);
+            throw e;
+        }
+        idempotency.complete(claim, response);
+        return response;
+    }
+
+    // The client-supplied booking fields; a reused Idempotency-Key must come with the same ones.
+    private static Map<String, Object> requestFingerprint(Booking booking) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("serviceId", booking.getServiceId());
+        fields.put("category", booking.getCategory());
+        fields.put("bookingDate", booking.getBookingDate());
+        fields.put("bookingDetails", booking.getBookingDetails());
+        fields.put("pricingDetails", booking.getPricingDetails());
+        fields.put("contactEmail", booking.getContactEmail());
+        fields.put("contactPhone", booking.getContactPhone());
+        fields.put("message", booking.getMessage());
+        return fields;
+    }
+
+    private ResponseEntity<?> doCreateBooking(Booking booking, String userId) {
         User user = userRepository.findById(userId).orElse(null);
         
         if (user == null) {
@@ -59,7 +138,27 @@ public class BookingController {
         booking.setProviderId(service.getProviderId());
         booking.setStatus("PENDING");
 
-        Booking saved = bookingRepository.save(booking);
+        Booking saved;
+        try {
+            // Takes a unit of the service's daily capacity first (409 when the day is full)
+            saved = bookingService.create(booking, service);
+        } catch (RuntimeException e) {
+            return transitionFailed(e);
+        }
+
+        // The booking exists from here on: a failed notification must not fail the request
+        // (an idempotent retry would then book again), so it is logged instead.
+        try {
+            notifyBookingCreated(saved, service, user);
+        } catch (RuntimeException e) {
+            logger.warn("Booking {} created but its notifications failed: {}", saved.getId(), e.getMessage());
+        }
+
+        return ResponseEntity.ok(new ApiResponse(true, "Booking created successfully", Map.of("booking", saved)));
+    }
+
+    private void notifyBookingCreated(Booking saved, ServicePost service, User user) {
+        String userId = user.getId();
 
         // Notify provider about new booking
         notificationService.createNotification(
@@ -83,62 +182,138 @@ public class BookingController {
             service.getId(),
             service.getTitle()
         );
-
-        return ResponseEntity.ok(new ApiResponse(true, "Booking created successfully", Map.of("booking", saved)));
     }
 
-    // Get traveller's bookings
+    // Get traveller's bookings (?includeArchived=true adds finished bookings moved to the archive)
     @GetMapping("/my-bookings")
-    public ResponseEntity<List<Booking>> getMyBookings(Authentication auth) {
+    public ResponseEntity<List<Booking>> getMyBookings(
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            Authentication auth) {
         if (auth == null) {
             return ResponseEntity.status(401).build();
         }
 
         String userId = auth.getName();
         List<Booking> bookings = bookingRepository.findByTravellerIdAndHiddenByTravellerFalse(userId);
+        if (includeArchived) {
+            bookings = withArchived(bookings, new Query(new Criteria().andOperator(
+                    Criteria.where("travellerId").is(userId),
+                    Criteria.where("hiddenByTraveller").is(false))));
+        }
         return ResponseEntity.ok(bookings);
     }
 
-    // Hide booking from traveller's My Bookings (allowed only when CANCELLED or COMPLETED)
-    @PutMapping("/{id}/hide")
-    public ResponseEntity<?> hideBookingFromTraveller(@PathVariable String id, Authentication auth) {
+    // GET /api/bookings/my-bookings/page?status=PENDING,CONFIRMED&from=&to=&cursor=&limit=20
+    // Paged "My Bookings" rows, newest first; full details via GET /api/bookings/{id}.
+    @GetMapping("/my-bookings/page")
+    public ResponseEntity<?> getMyBookingsPage(
+            BookingFilterDTO filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication auth) {
         if (auth == null) {
             return ResponseEntity.status(401).body(new ApiResponse(false, "Unauthorized", null));
         }
+        try {
+            return ResponseEntity.ok(bookingService.findTravellerInbox(auth.getName(), filter, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
 
-        String userId = auth.getName();
+    // Get one booking with all details (traveller or provider of that booking)
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getBooking(@PathVariable String id, Authentication auth) {
+        if (auth == null) {
+            return ResponseEntity.status(401).body(new ApiResponse(false, "Unauthorized", null));
+        }
         Booking booking = bookingRepository.findById(id).orElse(null);
+        if (booking == null) {
+            booking = bookingArchive.findArchivedById(id);
+        }
         if (booking == null) {
             return ResponseEntity.status(404).body(new ApiResponse(false, "Booking not found", null));
         }
-
-        if (!userId.equals(booking.getTravellerId())) {
-            return ResponseEntity.status(403).body(new ApiResponse(false, "Not authorized to modify this booking", null));
+        String userId = auth.getName();
+        if (!userId.equals(booking.getTravellerId()) && !userId.equals(booking.getProviderId())) {
+            return ResponseEntity.status(403).body(new ApiResponse(false, "Not authorized to view this booking", null));
         }
+        return ResponseEntity.ok(booking);
+    }
 
-        String status = booking.getStatus() == null ? "" : booking.getStatus().toUpperCase();
-        if (!("CANCELLED".equals(status) || "COMPLETED".equals(status))) {
-            return ResponseEntity.badRequest().body(new ApiResponse(false, "Only completed or cancelled bookings can be removed", null));
+    // Hide booking from traveller's My Bookings (allowed only when CANCELLED or COMPLETED)
+    @PutMapping("/{id}/hide")
+    public ResponseEntity<?> hideBookingFromTraveller(@PathVariable String id, Authentication auth) {
+        if (auth == null) {
+            return ResponseEntity.status(401).body(new ApiResponse(false, "Unauthorized", null));
         }
 
-        booking.setHiddenByTraveller(true);
-        booking.setUpdatedAt(new Date());
-        Booking saved = bookingRepository.save(booking);
+        Booking saved;
+        try {
+            saved = bookingService.hideForTraveller(id, auth.getName());
+        } catch (RuntimeException e) {
+            return transitionFailed(e);
+        }
         return ResponseEntity.ok(new ApiResponse(true, "Booking removed from My Bookings", Map.of("booking", saved)));
     }
 
-    // Get provider's bookings
+    // Get provider's bookings (?includeArchived=true adds finished bookings moved to the archive)
     @GetMapping("/provider-bookings")
-    public ResponseEntity<List<Booking>> getProviderBookings(Authentication auth) {
+    public ResponseEntity<List<Booking>> getProviderBookings(
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            Authentication auth) {
         if (auth == null) {
             return ResponseEntity.status(401).build();
         }
 
         String providerId = auth.getName();
         List<Booking> bookings = bookingRepository.findByProviderId(providerId);
+        if (includeArchived) {
+            bookings = withArchived(bookings, new Query(Criteria.where("providerId").is(providerId)));
+        }
         return ResponseEntity.ok(bookings);
     }
 
+    // Appends archived matches, skipping any booking still present in the hot list.
+    private List<Booking> withArchived(List<Booking> hot, Query archivedQuery) {
+        Set<String> seen = new HashSet<>();
+        List<Booking> all = new ArrayList<>(hot);
+        hot.forEach(b -> seen.add(b.getId()));
+        for (Booking b : bookingArchive.findArchived(archivedQuery)) {
+            if (seen.add(b.getId())) all.add(b);
+        }
+        return all;
+    }
+
+    // GET /api/bookings/provider-analytics
+    // Counts by status, bookings per service and a 12-month trend for the calling provider,
+    // aggregated in MongoDB and cached until one of their bookings changes.
+    @GetMapping("/provider-analytics")
+    public ResponseEntity<?> getProviderAnalytics(Authentication auth) {
+        if (auth == null) {
+            return ResponseEntity.status(401).body(new ApiResponse(false, "Unauthorized", null));
+        }
+        return ResponseEntity.ok(providerAnalytics.getAnalytics(auth.getName()));
+    }
+
+    // GET /api/bookings/provider-bookings/page?status=PENDING&from=&to=&cursor=&limit=20
+    // Paged provider inbox rows, newest first; full details via GET /api/bookings/{id}.
+    @GetMapping("/provider-bookings/page")
+    public ResponseEntity<?> getProviderBookingsPage(
+            BookingFilterDTO filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication auth) {
+        if (auth == null) {
+            return ResponseEntity.status(401).body(new ApiResponse(false, "Unauthorized", null));
+        }
+        try {
+            return ResponseEntity.ok(bookingService.findProviderInbox(auth.getName(), filter, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
     // Update booking status (for providers)
     @PutMapping("/{id}/status")
     public ResponseEntity<?> updateBookingStatus(
@@ -150,20 +325,15 @@ public class BookingController {
             return ResponseEntity.status(401).body(new ApiResponse(false, "Unauthorized", null));
         }
 
-        Booking booking = bookingRepository.findById(id).orElse(null);
-        if (booking == null) {
-            return ResponseEntity.status(404).body(new ApiResponse(false, "Booking not found", null));
-        }
-
         String userId = auth.getName();
-        if (!userId.equals(booking.getProviderId())) {
-            return ResponseEntity.status(403).body(new ApiResponse(false, "Not authorized to update this booking", null));
+        Booking booking;
+        try {
+            // One conditional update enforcing PENDING -> CONFIRMED -> COMPLETED / PENDING -> CANCELLED
+            booking = bookingService.providerTransition(id, userId, body.get("status"));
+        } catch (RuntimeException e) {
+            return transitionFailed(e);
         }
-
-        String newStatus = body.get("status");
-        booking.setStatus(newStatus);
-        booking.setUpdatedAt(new Date());
-        bookingRepository.save(booking);
+        String newStatus = booking.getStatus();
 
         // Notify traveller about status change
         User provider = userRepository.findById(userId).orElse(null);
@@ -183,30 +353,61 @@ public class BookingController {
         return ResponseEntity.ok(new ApiResponse(true, "Status updated", Map.of("booking", booking)));
     }
 
-    // Cancel booking (traveller only) - allowed only when PENDING
-    @PutMapping("/{id}/cancel")
-    public ResponseEntity<?> cancelBookingAsTraveller(@PathVariable String id, Authentication auth) {
+    // PUT /api/bookings/bulk-status  { "ids": [...], "status": "CONFIRMED" }
+    // Applies one provider transition to many bookings with a single update and notifies the
+    // travellers with one batched insert. Ids that can't make the transition come back in "skipped".
+    @PutMapping("/bulk-status")
+    public ResponseEntity<?> bulkUpdateBookingStatus(@RequestBody BulkStatusUpdateDTO body, Authentication auth) {
         if (auth == null) {
             return ResponseEntity.status(401).body(new ApiResponse(false, "Unauthorized", null));
         }
 
         String userId = auth.getName();
-        Booking booking = bookingRepository.findById(id).orElse(null);
-        if (booking == null) {
-            return ResponseEntity.status(404).body(new ApiResponse(false, "Booking not found", null));
+        BulkStatusResultDTO result;
+        try {
+            result = bookingService.providerBulkTransition(body.getIds(), userId, body.getStatus());
+        } catch (RuntimeException e) {
+            return transitionFailed(e);
         }
 
-        if (!userId.equals(booking.getTravellerId())) {
-            return ResponseEntity.status(403).body(new ApiResponse(false, "Not authorized to cancel this booking", null));
+        if (!result.getUpdated().isEmpty()) {
+            User provider = userRepository.findById(userId).orElse(null);
+            String providerName = provider != null ? provider.getFullname() : "Provider";
+            String status = result.getStatus();
+            List<Notification> notifications = new ArrayList<>(result.getUpdated().size());
+            for (BookingRowDTO booking : result.getUpdated()) {
+                notifications.add(NotificationService.build(
+                    booking.getTravellerId(),
+                    userId,
+                    providerName,
+                    "BOOKING_" + status,
+                    providerName + " " + status.toLowerCase() + " your booking for \"" + booking.getServiceTitle() + "\"",
+                    booking.getId(),
+                    booking.getServiceId(),
+                    booking.getServiceTitle()
+                ));
+            }
+            notificationService.createNotifications(notifications);
         }
 
-        if (booking.getStatus() == null || !"PENDING".equalsIgnoreCase(booking.getStatus())) {
-            return ResponseEntity.badRequest().body(new ApiResponse(false, "Only pending bookings can be cancelled", null));
+        String message = result.getUpdated().size() + " booking(s) updated, " + result.getSkipped().size() + " skipped";
+        return ResponseEntity.ok(new ApiResponse(true, message, result));
+    }
+
+    // Cancel booking (traveller only) - allowed only when PENDING
+    @PutMapping("/{id}/cancel")
+    public ResponseEntity<?> cancelBookingAsTraveller(@PathVariable String id, Authentication auth) {
+        if (auth == null) {
+            return ResponseEntity.status(401).body(new ApiResponse(false, "Unauthorized", null));
         }
 
-        booking.setStatus("CANCELLED");
-        booking.setUpdatedAt(new Date());
-        Booking saved = bookingRepository.save(booking);
+        String userId = auth.getName();
+        Booking booking;
+        try {
+            booking = bookingService.travellerCancel(id, userId);
+        } catch (RuntimeException e) {
+            return transitionFailed(e);
+        }
 
         // Notify provider about traveller's cancellation
         User traveller = userRepository.findById(userId).orElse(null);
@@ -222,7 +423,18 @@ public class BookingController {
             booking.getServiceTitle()
         );
 
-        return ResponseEntity.ok(new ApiResponse(true, "Booking cancelled", Map.of("booking", saved)));
+        return ResponseEntity.ok(new ApiResponse(true, "Booking cancelled", Map.of("booking", booking)));
+    }
+
+    // Maps BookingService failures to status codes: 404, 403, 409 (state conflict), 400.
+    private ResponseEntity<?> transitionFailed(RuntimeException e) {
+        int status;
+        if (e instanceof ResourceNotFoundException) status = 404;
+        else if (e instanceof AccessDeniedException) status = 403;
+        else if (e instanceof ConflictException) status = 409;
+        else if (e instanceof IllegalArgumentException) status = 400;
+        else throw e;
+        return ResponseEntity.status(status).body(new ApiResponse(false, e.getMessage(), null));
     }
 
     // Cancel/Delete booking (for travellers or providers)
@@ -247,12 +459,13 @@ public class BookingController {
             return ResponseEntity.status(403).body(new ApiResponse(false, "Not authorized to delete this booking", null));
         }
 
-        if (isTraveller && (booking.getStatus() == null || !"PENDING".equalsIgnoreCase(booking.getStatus()))) {
-            return ResponseEntity.badRequest().body(new ApiResponse(false, "Only pending bookings can be cancelled", null));
+        // Travellers may only delete pending bookings; the service re-checks the status atomically.
+        try {
+            booking = bookingService.delete(id, isTraveller);
+        } catch (RuntimeException e) {
+            return transitionFailed(e);
         }
 
-        bookingRepository.deleteById(id);
-
         // Notify the other party about the deletion
         User currentUser = userRepository.findById(userId).orElse(null);
         String currentUserName = currentUser != null ? currentUser.getFullname() : "User";
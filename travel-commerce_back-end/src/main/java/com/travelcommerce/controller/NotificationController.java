@@ -1,18 +1,25 @@
 package com.travelcommerce.controller;
 
+import com.travelcommerce.config.JwtUtil;
 import com.travelcommerce.dto.ApiResponse;
+import com.travelcommerce.dto.BroadcastJobDTO;
 import com.travelcommerce.model.Notification;
 import com.travelcommerce.model.Role;
 import com.travelcommerce.model.User;
 import com.travelcommerce.repository.UserRepository;
+import com.travelcommerce.service.NotificationFanoutService;
 import com.travelcommerce.service.NotificationService;
+import com.travelcommerce.service.NotificationStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -24,6 +31,15 @@ public class NotificationController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private NotificationFanoutService fanout;
+
+    @Autowired
+    private NotificationStreamService notificationStream;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
     // Get all notifications for current user
     @GetMapping
     public ResponseEntity<?> getMyNotifications(Authentication auth) {
@@ -35,6 +51,39 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
 
+    // GET /api/notifications/stream  (text/event-stream)
+    // Pushes "notification" and "unread-count" events as they happen, replacing unread-count polling.
+    // EventSource sends Last-Event-ID on reconnect; ?lastEventId= does the same for a fresh EventSource.
+    // Auth: Bearer header, or ?ticket= from POST /stream-ticket since EventSource can't set headers.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(required = false) String lastEventId,
+            Authentication auth) {
+        if (auth == null) {
+            return ResponseEntity.status(401).build();
+        }
+        SseEmitter emitter = notificationStream.subscribe(
+                auth.getName(), lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no") // don't let nginx buffer the stream
+                .body(emitter);
+    }
+
+    // POST /api/notifications/stream-ticket
+    // Short-lived ticket for opening the stream. The session JWT never goes in a URL, where
+    // proxies and access logs would keep it; a leaked ticket only opens this user's stream
+    // until it expires. The client fetches a fresh one for each (re)connect.
+    @PostMapping("/stream-ticket")
+    public ResponseEntity<?> streamTicket(Authentication auth) {
+        if (auth == null) {
+            return ResponseEntity.status(401).body(new ApiResponse(false, "Unauthorized", null));
+        }
+        return ResponseEntity.ok(new ApiResponse(true, "Stream ticket issued", Map.of(
+                "ticket", jwtUtil.generateStreamTicket(auth.getName()),
+                "expiresInMs", jwtUtil.getStreamTicketMs())));
+    }
+
     // Get unread notification count
     @GetMapping("/unread-count")
     public ResponseEntity<?> getUnreadCount(Authentication auth) {
@@ -123,6 +172,7 @@ public class NotificationController {
 
     // ==================================================================================
     // ADMIN: Broadcast notification to all users (or by role)
+    // Returns 202 with a job straight away; poll GET /admin/broadcast/{jobId} for progress.
     // ==================================================================================
     @PostMapping("/admin/broadcast")
     public ResponseEntity<?> adminBroadcast(
@@ -145,8 +195,32 @@ public class NotificationController {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "message is required", null));
         }
 
-        int count = notificationService.adminBroadcast(adminId, admin.getFullname(), message, targetRole);
+        BroadcastJobDTO job;
+        try {
+            job = fanout.startBroadcast(adminId, admin.getFullname(), message, targetRole);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503).header("Retry-After", "30")
+                    .body(new ApiResponse(false, "Too many broadcasts queued, try again later", null));
+        }
+
+        return ResponseEntity.status(202).body(new ApiResponse(true, "Broadcast queued", Map.of("job", job)));
+    }
+
+    @GetMapping("/admin/broadcast/{jobId}")
+    public ResponseEntity<?> getBroadcastJob(@PathVariable String jobId, Authentication auth) {
+        if (auth == null) {
+            return ResponseEntity.status(401).body(new ApiResponse(false, "Unauthorized", null));
+        }
+
+        User admin = userRepository.findById(auth.getName()).orElse(null);
+        if (admin == null || admin.getRole() != Role.ROLE_ADMIN) {
+            return ResponseEntity.status(403).body(new ApiResponse(false, "Admin access required", null));
+        }
 
-        return ResponseEntity.ok(new ApiResponse(true, "Broadcast sent to " + count + " users", Map.of("recipientCount", count)));
+        BroadcastJobDTO job = fanout.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.status(404).body(new ApiResponse(false, "Broadcast job not found", null));
+        }
+        return ResponseEntity.ok(new ApiResponse(true, "Broadcast " + job.getStatus().toLowerCase(), Map.of("job", job)));
     }
 }
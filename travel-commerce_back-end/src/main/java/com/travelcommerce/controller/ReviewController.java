@@ -9,12 +9,24 @@ import com.travelcommerce.repository.UserRepository;
 import com.travelcommerce.repository.ServiceRepository;
 import com.travelcommerce.model.ServicePost;
 import com.travelcommerce.service.NotificationService;
+import com.travelcommerce.service.RatingAggregateService;
+import com.travelcommerce.service.ReviewQueryService;
+import com.travelcommerce.service.CascadeDeleteService;
+import com.travelcommerce.service.MongoExportService;
+import com.travelcommerce.service.RatingHistogramService;
+import com.travelcommerce.service.ReviewNotificationService;
+import com.travelcommerce.model.RatingHistogram;
+import com.travelcommerce.dto.ReviewFilterDTO;
 import com.travelcommerce.dto.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -38,6 +50,24 @@ public class ReviewController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private RatingAggregateService ratingAggregates;
+
+    @Autowired
+    private ReviewQueryService reviewQueries;
+
+    @Autowired
+    private CascadeDeleteService cascadeDeletes;
+
+    @Autowired
+    private MongoExportService mongoExportService;
+
+    @Autowired
+    private RatingHistogramService ratingHistograms;
+
+    @Autowired
+    private ReviewNotificationService reviewNotifications;
+
     // Create review
     @PostMapping
     public ResponseEntity<?> createReview(@RequestBody Review review, Authentication auth) {
@@ -52,30 +82,32 @@ public class ReviewController {
             return ResponseEntity.status(404).body(new ApiResponse(false, "User not found", null));
         }
 
+        if (review.getServiceId() == null || review.getServiceId().isBlank()) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "serviceId is required", null));
+        }
+        if (!validRating(review.getRating())) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Rating must be between 1 and 5", null));
+        }
+
+        // Always a new top-level review: a client-sent id would overwrite an existing review
+        // (and skew the rating counters); replies go through /{parentReviewId}/reply.
+        review.setId(null);
+        review.setCreatedAt(new Date());
+        review.setParentReviewId(null);
         review.setTravellerId(userId);
         review.setTravellerName(user.getFullname());
 
         Review saved = reviewRepository.save(review);
+        ratingAggregates.reviewAdded(saved);
 
-        // Notify the service provider about the new review
-        ServicePost service = serviceRepository.findById(review.getServiceId()).orElse(null);
-        if (service != null && service.getProviderId() != null) {
-            notificationService.createNotification(
-                service.getProviderId(),
-                userId,
-                user.getFullname(),
-                "REVIEW_NEW",
-                user.getFullname() + " left a " + review.getRating() + "-star review on \"" + service.getTitle() + "\"",
-                saved.getId(),
-                service.getId(),
-                service.getTitle()
-            );
-        }
+        // Notify the service provider about the new review (in the background)
+        reviewNotifications.reviewCreated(saved, user.getFullname());
 
         return ResponseEntity.ok(new ApiResponse(true, "Review submitted successfully", Map.of("review", saved)));
     }
 
     // 🟢 NEW: Get ALL reviews (For Admin Dashboard)
+    // Unpaged; large deployments should use /admin/feed or /admin/export below.
     @GetMapping
     public ResponseEntity<?> getAllReviews(Authentication auth) {
         // Security Check: Is it an Admin?
@@ -91,6 +123,55 @@ public class ReviewController {
         return ResponseEntity.ok(reviewRepository.findAll());
     }
 
+    // GET /api/reviews/admin/feed?rating=&serviceId=&travellerId=&from=&to=&type=top|reply&cursor=&limit=20
+    // Moderation feed, newest first, one keyset page at a time (Admin only).
+    @GetMapping("/admin/feed")
+    public ResponseEntity<?> getAdminFeed(
+            ReviewFilterDTO filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication auth) {
+        ResponseEntity<?> denied = requireAdmin(auth);
+        if (denied != null) return denied;
+        try {
+            return ResponseEntity.ok(reviewQueries.findAdminFeed(filter, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
+    // GET /api/reviews/admin/export?format=json|ndjson&<feed filters> (Admin only)
+    // Streams every matching review from a MongoDB cursor without buffering.
+    @GetMapping("/admin/export")
+    public ResponseEntity<?> exportReviews(
+            ReviewFilterDTO filter,
+            @RequestParam(defaultValue = "ndjson") String format,
+            Authentication auth) {
+        ResponseEntity<?> denied = requireAdmin(auth);
+        if (denied != null) return denied;
+        Query query;
+        try {
+            query = reviewQueries.adminExportQuery(filter);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage(), null));
+        }
+        boolean ndjson = !"json".equalsIgnoreCase(format);
+        StreamingResponseBody body = mongoExportService.export(query, Review.class, ndjson);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // Returns the 401/403 response for non-admins, or null when the caller is an admin.
+    private ResponseEntity<?> requireAdmin(Authentication auth) {
+        if (auth == null) return ResponseEntity.status(401).build();
+        User user = userRepository.findById(auth.getName()).orElse(null);
+        if (user == null || user.getRole() != Role.ROLE_ADMIN) {
+            return ResponseEntity.status(403).body(new ApiResponse(false, "Access Denied", null));
+        }
+        return null;
+    }
+
     // Get reviews for a service (public) - Returns nested structure
     @GetMapping("/service/{serviceId}")
     public ResponseEntity<List<Review>> getServiceReviews(@PathVariable String serviceId) {
@@ -124,6 +205,43 @@ public class ReviewController {
         return ResponseEntity.ok(topLevelReviews);
     }
     
+    // GET /api/reviews/service/{serviceId}/page?sort=newest|rating&cursor=&limit=10&replies=3 (public)
+    // Top-level reviews one page at a time, each with its first few replies and replyCount.
+    @GetMapping("/service/{serviceId}/page")
+    public ResponseEntity<?> getServiceReviewsPage(
+            @PathVariable String serviceId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(name = "replies", defaultValue = "3") int replyPreview) {
+        try {
+            return ResponseEntity.ok(reviewQueries.findServiceReviews(serviceId, sort, cursor, limit, replyPreview));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
+    // GET /api/reviews/service/{serviceId}/histogram (public)
+    // 1-5 star distribution, served from the maintained histogram (no review scan).
+    @GetMapping("/service/{serviceId}/histogram")
+    public ResponseEntity<RatingHistogram> getRatingHistogram(@PathVariable String serviceId) {
+        return ResponseEntity.ok(ratingHistograms.get(serviceId));
+    }
+
+    // GET /api/reviews/{reviewId}/replies?cursor=&limit=20 (public)
+    // Lazily loads the rest of a thread, oldest reply first.
+    @GetMapping("/{reviewId}/replies")
+    public ResponseEntity<?> getReplies(
+            @PathVariable String reviewId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(reviewQueries.findReplies(reviewId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
     // Create a reply to a review
     @PostMapping("/{parentReviewId}/reply")
     public ResponseEntity<?> createReply(
@@ -147,6 +265,8 @@ public class ReviewController {
             return ResponseEntity.status(404).body(new ApiResponse(false, "Parent review not found", null));
         }
 
+        reply.setId(null);
+        reply.setCreatedAt(new Date());
         reply.setTravellerId(userId);
         reply.setTravellerName(user.getFullname());
         reply.setParentReviewId(parentReviewId);
@@ -155,21 +275,8 @@ public class ReviewController {
 
         Review saved = reviewRepository.save(reply);
 
-        // Notify the parent review author about the reply
-        if (!parentReview.getTravellerId().equals(userId)) {
-            ServicePost service = serviceRepository.findById(parentReview.getServiceId()).orElse(null);
-            String serviceTitle = service != null ? service.getTitle() : "a service";
-            notificationService.createNotification(
-                parentReview.getTravellerId(),
-                userId,
-                user.getFullname(),
-                "REVIEW_REPLY",
-                user.getFullname() + " replied to your review on \"" + serviceTitle + "\"",
-                saved.getId(),
-                parentReview.getServiceId(),
-                serviceTitle
-            );
-        }
+        // Notify the parent review author about the reply (in the background)
+        reviewNotifications.replyCreated(saved, parentReview, user.getFullname());
 
         return ResponseEntity.ok(new ApiResponse(true, "Reply submitted successfully", Map.of("reply", saved)));
     }
@@ -193,15 +300,22 @@ public class ReviewController {
             return ResponseEntity.status(403).body(new ApiResponse(false, "Not authorized to edit this review", null));
         }
 
-        // Update only editable fields
-        existingReview.setComment(updatedReview.getComment());
-        if (existingReview.getParentReviewId() == null || existingReview.getParentReviewId().isEmpty()) {
-            // Only top-level reviews can have ratings
-            existingReview.setRating(updatedReview.getRating());
+        // Only top-level reviews can have ratings
+        boolean topLevel = RatingAggregateService.isTopLevel(existingReview);
+        if (topLevel && !validRating(updatedReview.getRating())) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Rating must be between 1 and 5", null));
         }
 
-        Review saved = reviewRepository.save(existingReview);
-        return ResponseEntity.ok(new ApiResponse(true, "Review updated successfully", Map.of("review", saved)));
+        // Update only editable fields, conditional on the rating read above
+        Review before = ratingAggregates.editReview(existingReview, updatedReview.getComment(), updatedReview.getRating());
+        if (before == null) {
+            return reviewRepository.existsById(id)
+                    ? ResponseEntity.status(409).body(new ApiResponse(false, "Review was changed meanwhile, reload and try again", null))
+                    : ResponseEntity.status(404).body(new ApiResponse(false, "Review not found", null));
+        }
+        existingReview.setComment(updatedReview.getComment());
+        if (topLevel) existingReview.setRating(updatedReview.getRating());
+        return ResponseEntity.ok(new ApiResponse(true, "Review updated successfully", Map.of("review", existingReview)));
     }
 
     // Get traveller's reviews
@@ -241,15 +355,16 @@ public class ReviewController {
             return ResponseEntity.status(403).body(new ApiResponse(false, "Not authorized to delete this review", null));
         }
 
-        // If this is a top-level review, also delete all its replies
-        if (review.getParentReviewId() == null || review.getParentReviewId().isEmpty()) {
-            List<Review> replies = reviewRepository.findByParentReviewId(id);
-            for (Review reply : replies) {
-                reviewRepository.deleteById(reply.getId());
-            }
+        // Only the request that actually removes the review updates the counters and cascades.
+        Review removed = ratingAggregates.deleteReview(id);
+        if (removed == null) {
+            return ResponseEntity.status(404).body(new ApiResponse(false, "Review not found", null));
         }
 
-        reviewRepository.deleteById(id);
+        // If this is a top-level review, also delete all its replies (one deleteMany)
+        if (RatingAggregateService.isTopLevel(removed)) {
+            cascadeDeletes.deleteReplies(id);
+        }
 
         // If admin deleted someone else's review, notify the review author
         if (isAdmin && !isOwner) {
@@ -269,6 +384,11 @@ public class ReviewController {
 
         return ResponseEntity.ok(new ApiResponse(true, "Review deleted", null));
     }
+
+    // Top-level reviews are rated 1-5 stars (replies are stored with 0).
+    private static boolean validRating(int rating) {
+        return rating >= 1 && rating <= 5;
+    }
 }
 
 
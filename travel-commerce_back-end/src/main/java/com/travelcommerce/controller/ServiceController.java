@@ -1,5 +1,9 @@
 package com.travelcommerce.controller;
 
+import com.travelcommerce.dto.CursorPageDTO;
+import com.travelcommerce.dto.FacetedPageDTO;
+import com.travelcommerce.dto.ServiceCardDTO;
+import com.travelcommerce.dto.ServiceFilterDTO;
 import com.travelcommerce.model.ServicePost;
 import com.travelcommerce.model.User;
 import com.travelcommerce.model.Role;
@@ -11,17 +15,32 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.server.ResponseStatusException;
 import com.travelcommerce.repository.ServiceRepository;
 import com.travelcommerce.service.NotificationService;
+import com.travelcommerce.service.CatalogSnapshotService;
+import com.travelcommerce.service.MongoExportService;
+import com.travelcommerce.service.CatalogResponseCache;
+import com.travelcommerce.service.SlotReservationService;
+import com.travelcommerce.dto.AvailabilityDTO;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDate;
+import com.travelcommerce.service.CatalogSort;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Comparator;
@@ -39,6 +58,22 @@ public class ServiceController {
 
     @Autowired private ServiceRepository serviceRepository;
     @Autowired private NotificationService notificationService;
+    @Autowired private CatalogSnapshotService catalogSnapshot;
+    @Autowired private MongoExportService mongoExportService;
+    @Autowired private CatalogResponseCache catalogResponseCache;
+    @Autowired private SlotReservationService slotReservations;
+
+    // Daily booking capacity from form/JSON input; blank, zero or negative means unlimited.
+    private static Integer parseDailyCapacity(Object raw) {
+        if (raw == null || raw.toString().isBlank()) return null;
+        int capacity;
+        try {
+            capacity = raw instanceof Number ? ((Number) raw).intValue() : Integer.parseInt(raw.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Daily capacity must be a whole number");
+        }
+        return capacity > 0 ? capacity : null;
+    }
 
     private static String validateAndCleanWhatsappNumber(String raw) {
         if (raw == null) return null;
@@ -114,20 +149,22 @@ public class ServiceController {
 // 🟢 HELPER: Determines Priority (1 = Highest, 99 = Lowest)
     // We use keyword matching so it works even if plan names change slightly.
     private int getPlanPriority(String planName) {
-        if (planName == null) return 99; // No plan = Lowest priority
-        String lower = planName.toLowerCase();
-        
-        if (lower.contains("premium")) return 1;   // 🥇 Premium Spotlight
-        if (lower.contains("featured")) return 2;  // 🥈 Featured Visibility
-        if (lower.contains("standard")) return 3;  // 🥉 Standard Listing
-        
-        return 99; // Any other plan or free tier
+        return ServicePost.planPriorityOf(planName);
     }
 
     // GET /api/services
     // 🟢 UPDATED: Fetches posts and sorts them by Plan Priority (Gold > Silver > Bronze)
+    // Public callers may pass sort=plan|newest|rating (default plan).
     @GetMapping
-    public ResponseEntity<List<ServicePost>> getAllServices(@RequestParam(required = false) String mode) {
+    public ResponseEntity<?> getAllServices(@RequestParam(required = false) String mode,
+                                            @RequestParam(required = false) String sort,
+                                            WebRequest request) {
+        CatalogSort catalogSort;
+        try {
+            catalogSort = CatalogSort.fromParam(sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
         try {
             List<ServicePost> posts;
 
@@ -135,22 +172,133 @@ public class ServiceController {
             if ("admin".equals(mode)) {
                 // Admin sees EVERYTHING (Active, Pending, Banned)
                 posts = serviceRepository.findAll();
-            } else {
-                // Public only sees ACTIVE posts
-                posts = serviceRepository.findByStatus("ACTIVE");
+
+                // 2. 🟢 SORTING LOGIC:
+                // Sorts the list so "Premium" is at index 0, "Featured" at index 1, etc.
+                posts.sort(Comparator.comparingInt((ServicePost p) -> getPlanPriority(p.getPlanName())));
+                return ResponseEntity.ok(posts);
             }
 
-            // 2. 🟢 SORTING LOGIC:
-            // Sorts the list so "Premium" is at index 0, "Featured" at index 1, etc.
-            posts.sort(Comparator.comparingInt((ServicePost p) -> getPlanPriority(p.getPlanName())));
+            // Public only sees ACTIVE posts. The body is pre-serialized (and pre-gzipped) per
+            // snapshot version and sort, so a hit only copies cached bytes to the socket.
+            boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
 
-            return ResponseEntity.ok(posts);
+            // The snapshot version is the ETag (one per encoding), so a revalidation is answered before any work.
+            String etag = catalogEtag(catalogSnapshot.version(), catalogSort, gzip);
+            if (request.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+            CatalogResponseCache.Entry body = catalogResponseCache.get(catalogSort);
+            etag = catalogEtag(body.getVersion(), catalogSort, gzip);
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .contentType(MediaType.APPLICATION_JSON);
+            if (gzip) {
+                return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.getGzip());
+            }
+            return ok.body(body.getJson());
         } catch (Exception e) {
             logger.error("Error fetching services", e);
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    // GET /api/services/page?cursor=...&limit=20
+    // Keyset-paginated variant of the list above, sorted by MongoDB on the persisted
+    // planPriority so each request only touches one page worth of documents.
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<ServicePost>> getServicesPage(
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(servicePostService.findCatalogPage("admin".equals(mode), cursor, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // GET /api/services/cards?cursor=...&limit=20
+    // Grid view of ACTIVE posts: card fields and first image only; use GET {id} for details.
+    @GetMapping("/cards")
+    public ResponseEntity<CursorPageDTO<ServiceCardDTO>> getServiceCards(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(servicePostService.findCardPage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // GET /api/services/filter?district=&category=&priceFrom=&priceTo=&plan=&minRating=&cursor=&limit=
+    // Server-side filtering over ACTIVE posts with facet counts in the same response.
+    @GetMapping("/filter")
+    public ResponseEntity<FacetedPageDTO<ServicePost>> filterServices(
+            ServiceFilterDTO filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(servicePostService.filterCatalog(filter, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // GET /api/services/search?q=...&category=&cursor=&limit=
+    // Relevance-ranked keyword search over ACTIVE posts backed by the text index.
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageDTO<ServicePost>> searchServices(
+            @RequestParam(name = "q", required = false) String keyword,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(servicePostService.searchText(keyword, category, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // GET /api/services/{id}/availability?from=yyyy-MM-dd&to=yyyy-MM-dd (public)
+    // Reserved / open capacity per day from the reservation counters (max 92 days).
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<AvailabilityDTO> getAvailability(
+            @PathVariable String id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ServicePost p = catalogSnapshot.current().find(id);
+        if (p == null) p = servicePostService.findById(id);
+        if (p == null) return ResponseEntity.notFound().build();
+        try {
+            return ResponseEntity.ok(slotReservations.availability(p, from, to));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // GET /api/services/export?format=json|ndjson (Admin only)
+    // Streams every post from a MongoDB cursor in id order instead of building a List,
+    // so dumping a large catalog doesn't spike the heap.
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportServices(
+            @RequestParam(defaultValue = "json") String format,
+            Authentication auth) {
+        if (auth == null) return ResponseEntity.status(401).build();
+        User user = userRepository.findById(auth.getName()).orElse(null);
+        if (user == null || user.getRole() != Role.ROLE_ADMIN) {
+            return ResponseEntity.status(403).build();
+        }
+
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        Query query = new Query().with(Sort.by(Sort.Order.asc("id")));
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(mongoExportService.export(query, ServicePost.class, ndjson));
+    }
+
 //==============
 
     // 🟢 NEW: Public Endpoint for Travellers (Only shows APPROVED posts)
@@ -161,11 +309,52 @@ public class ServiceController {
     }
 
     // GET /api/services/{id}
+    // ACTIVE posts come from the snapshot, so a matching If-None-Match costs no MongoDB work.
     @GetMapping("{id}")
-    public ResponseEntity<?> get(@PathVariable String id) {
-        ServicePost p = servicePostService.findById(id);
+    public ResponseEntity<?> get(@PathVariable String id, WebRequest request) {
+        ServicePost p = catalogSnapshot.current().find(id);
+        if (p == null) {
+            p = servicePostService.findById(id);
+        }
         if (p == null) return ResponseEntity.notFound().build();
-        return ResponseEntity.ok(p);
+
+        String etag = postEtag(p);
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(p);
+    }
+
+    // Strong ETags. no-cache lets browsers keep the body but revalidate on every use.
+    private static String catalogEtag(long snapshotVersion, CatalogSort sort, boolean gzip) {
+        return "\"catalog-" + Long.toHexString(snapshotVersion) + "-" + sort.name().toLowerCase() + (gzip ? "-gz" : "") + "\"";
+    }
+
+    // Honours "gzip" unless it is explicitly refused with q=0.
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (!"gzip".equalsIgnoreCase(tokens[0].trim())) continue;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim().replace(" ", "");
+                if (param.equals("q=0") || param.startsWith("q=0.") && param.substring(4).replace("0", "").isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static String postEtag(ServicePost p) {
+        Date lastModified = p.getUpdatedAt() != null ? p.getUpdatedAt() : p.getCreatedAt();
+        long stamp = lastModified != null ? lastModified.getTime() : 0L;
+        return "\"svc-" + p.getId() + "-" + stamp + "\"";
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
     }
 
     // GET /api/services/provider-posts
@@ -237,6 +426,7 @@ public class ServiceController {
             
             post.setPriceUnit((String) serviceData.get("priceUnit"));
             post.setCurrency((String) serviceData.get("currency"));
+            post.setDailyCapacity(parseDailyCapacity(serviceData.get("dailyCapacity")));
             
             // External booking URL (optional)
             post.setExternalBookingUrl((String) serviceData.get("externalBookingUrl"));
@@ -329,6 +519,7 @@ public class ServiceController {
         existing.setPriceTo(updated.getPriceTo());
         existing.setPriceUnit(updated.getPriceUnit());
         existing.setCurrency(updated.getCurrency());
+        existing.setDailyCapacity(parseDailyCapacity(updated.getDailyCapacity()));
 
         // Optional external booking / WhatsApp contact
         existing.setExternalBookingUrl(updated.getExternalBookingUrl());
@@ -384,6 +575,7 @@ public class ServiceController {
 
 
         ServicePost saved = servicePostService.update(existing);
+        if (saved == null) return ResponseEntity.notFound().build(); // deleted meanwhile
         return ResponseEntity.ok(saved);
     }
 
@@ -452,6 +644,9 @@ public class ServiceController {
             
             existing.setPriceUnit((String) data.get("priceUnit"));
             existing.setCurrency((String) data.get("currency"));
+            if (data.containsKey("dailyCapacity")) {
+                existing.setDailyCapacity(parseDailyCapacity(data.get("dailyCapacity")));
+            }
 
             // Optional external booking / WhatsApp contact
             if (data.containsKey("externalBookingUrl")) {
@@ -502,6 +697,7 @@ public class ServiceController {
             existing.setImages(finalImages);
 
             ServicePost saved = servicePostService.update(existing);
+            if (saved == null) return ResponseEntity.notFound().build(); // deleted meanwhile
             return ResponseEntity.ok(saved);
 
         } catch (Exception e) {
@@ -0,0 +1,26 @@
+package com.travelcommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Open capacity per day for one service (GET /api/services/{id}/availability).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityDTO {
+    private String serviceId;
+    private Integer dailyCapacity;  // null = unlimited (no per-day limit set)
+    private List<Day> days;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Day {
+        private String date;        // yyyy-MM-dd
+        private int reserved;
+        private Integer available;  // null when unlimited
+    }
+}
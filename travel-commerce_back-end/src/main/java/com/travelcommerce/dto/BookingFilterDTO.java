@@ -0,0 +1,20 @@
+package com.travelcommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Booking inbox filters (GET /api/bookings/*-bookings/page); null fields are not applied.
+@Data
+@NoArgsConstructor
+public class BookingFilterDTO {
+    private List<String> status;  // one or more of PENDING, CONFIRMED, CANCELLED, COMPLETED
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;       // created on or after this day
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;         // created on or before this day
+    private boolean includeArchived; // also read bookings_archive (see BookingArchiveService)
+}
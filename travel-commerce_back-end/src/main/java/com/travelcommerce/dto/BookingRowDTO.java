@@ -0,0 +1,52 @@
+package com.travelcommerce.dto;
+
+import com.travelcommerce.model.Booking;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * One line of a booking inbox. Read through a field projection (see {@link #PROJECTED_FIELDS})
+ * so booking/pricing details, contact info and the message stay on GET /api/bookings/{id}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingRowDTO {
+
+    public static final String[] PROJECTED_FIELDS = {
+            "travellerId", "travellerName", "serviceId", "serviceTitle", "providerId",
+            "category", "bookingDate", "status", "createdAt", "updatedAt"
+    };
+
+    private String id;
+    private String travellerId;
+    private String travellerName;
+    private String serviceId;
+    private String serviceTitle;
+    private String providerId;
+    private String category;
+    private Date bookingDate;
+    private String status;
+    private Date createdAt;
+    private Date updatedAt;
+
+    public static BookingRowDTO from(Booking booking) {
+        if (booking == null) return null;
+        return new BookingRowDTO(
+                booking.getId(),
+                booking.getTravellerId(),
+                booking.getTravellerName(),
+                booking.getServiceId(),
+                booking.getServiceTitle(),
+                booking.getProviderId(),
+                booking.getCategory(),
+                booking.getBookingDate(),
+                booking.getStatus(),
+                booking.getCreatedAt(),
+                booking.getUpdatedAt()
+        );
+    }
+}
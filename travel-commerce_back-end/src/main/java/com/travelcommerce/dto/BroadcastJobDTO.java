@@ -0,0 +1,21 @@
+package com.travelcommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// Progress of an admin broadcast running in the background (GET /api/notifications/admin/broadcast/{jobId}).
+// A point-in-time copy; the running job lives in NotificationFanoutService.
+@Data
+@NoArgsConstructor
+public class BroadcastJobDTO {
+    private String jobId;
+    private String targetRole;
+    private String status;     // QUEUED, RUNNING, COMPLETED, FAILED
+    private long total;        // recipients matched when the job started
+    private long sent;         // notifications written so far
+    private String error;
+    private Date createdAt = new Date();
+    private Date finishedAt;
+}
@@ -0,0 +1,18 @@
+package com.travelcommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Outcome of a bulk status update: the bookings that moved, and the ids that were left alone
+// (unknown, not the provider's, or not in a status the target can be reached from).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusResultDTO {
+    private String status;
+    private List<BookingRowDTO> updated;
+    private List<String> skipped;
+}
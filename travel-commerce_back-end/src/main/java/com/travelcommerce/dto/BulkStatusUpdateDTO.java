@@ -0,0 +1,14 @@
+package com.travelcommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Body of PUT /api/bookings/bulk-status: move several of the provider's bookings to one status.
+@Data
+@NoArgsConstructor
+public class BulkStatusUpdateDTO {
+    private List<String> ids;  // booking ids, at most BookingService.MAX_BULK_SIZE
+    private String status;     // CONFIRMED, COMPLETED or CANCELLED
+}
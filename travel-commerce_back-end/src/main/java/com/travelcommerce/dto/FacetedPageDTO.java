@@ -0,0 +1,23 @@
+package com.travelcommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A keyset page plus facet counts over the whole filtered result:
+ * facets maps a dimension (e.g. "district") to value -> number of matching listings.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedPageDTO<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private long total;
+    private Map<String, Map<String, Long>> facets;
+}
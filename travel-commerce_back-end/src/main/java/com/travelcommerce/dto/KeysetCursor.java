@@ -0,0 +1,49 @@
+package com.travelcommerce.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort key and document id of the last item on a page.
+ * Encoded as URL-safe base64 so clients treat it as a token and never build it themselves.
+ */
+public final class KeysetCursor {
+
+    private final String key;
+    private final String id;
+
+    public KeysetCursor(String key, String id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public String getKey() { return key; }
+    public String getId() { return id; }
+
+    public int keyAsInt() { return Integer.parseInt(key); }
+    public long keyAsLong() { return Long.parseLong(key); }
+
+    public String encode() {
+        String raw = key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the decoded cursor, or null when {@code token} is blank.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) return null;
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int sep = raw.lastIndexOf('|');
+        if (sep <= 0 || sep == raw.length() - 1) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new KeysetCursor(raw.substring(0, sep), raw.substring(sep + 1));
+    }
+}
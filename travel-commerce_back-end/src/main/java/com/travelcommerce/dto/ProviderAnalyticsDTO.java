@@ -0,0 +1,41 @@
+package com.travelcommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+// Booking analytics for one provider (GET /api/bookings/provider-analytics).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProviderAnalyticsDTO {
+    private long totalBookings;
+    private Map<String, Long> byStatus;         // PENDING / CONFIRMED / CANCELLED / COMPLETED -> count
+    private List<ServiceCount> byService;       // busiest services first
+    private List<MonthCount> monthlyTrend;      // oldest month first, e.g. "2025-03"
+    private Date generatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ServiceCount {
+        private String serviceId;
+        private String serviceTitle;
+        private long total;
+        private long completed;
+        private long cancelled;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MonthCount {
+        private String month;
+        private long total;
+        private long completed;
+    }
+}
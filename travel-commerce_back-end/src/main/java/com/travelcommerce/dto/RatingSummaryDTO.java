@@ -0,0 +1,18 @@
+package com.travelcommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+// Sum, average and count of top-level review ratings for one service (aggregation result row).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingSummaryDTO {
+    @Id
+    private String serviceId;
+    private long ratingSum;
+    private double averageRating;
+    private long reviewCount;
+}
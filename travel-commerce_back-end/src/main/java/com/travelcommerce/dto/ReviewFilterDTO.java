@@ -0,0 +1,21 @@
+package com.travelcommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+// Admin review feed filters (GET /api/reviews/admin/feed); null fields are not applied.
+@Data
+@NoArgsConstructor
+public class ReviewFilterDTO {
+    private Integer rating;       // exact star rating (1-5)
+    private String serviceId;
+    private String travellerId;   // author
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;       // created on or after this day
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;         // created on or before this day
+    private String type;          // "top" (reviews) or "reply"; null for both
+}
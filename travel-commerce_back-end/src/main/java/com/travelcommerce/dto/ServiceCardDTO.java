@@ -0,0 +1,59 @@
+package com.travelcommerce.dto;
+
+import com.travelcommerce.model.ServicePost;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What a listing grid card shows. Read through a field projection (see
+ * {@link #PROJECTED_FIELDS}) so description, offerings and the full image list are never
+ * loaded; {@link ServiceResponseDTO} / the full post stay on the detail page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceCardDTO {
+
+    // Fields read from MongoDB for a card (images is additionally sliced to one element).
+    public static final String[] PROJECTED_FIELDS = {
+            "title", "category", "district", "location", "planName", "planPriority",
+            "priceFrom", "priceTo", "priceUnit", "currency", "ratingSum", "ratingCount"
+    };
+
+    private String id;
+    private String title;
+    private String category;
+    private String district;
+    private String location;
+    private String planName;
+    private Double priceFrom;
+    private Double priceTo;
+    private String priceUnit;
+    private String currency;
+    private String image;
+    private Double averageRating;
+    private Long reviewCount;
+
+    public static ServiceCardDTO from(ServicePost post) {
+        if (post == null) return null;
+        String image = post.getImages() != null && !post.getImages().isEmpty()
+                ? post.getImages().get(0)
+                : null;
+        return new ServiceCardDTO(
+                post.getId(),
+                post.getTitle(),
+                post.getCategory(),
+                post.getDistrict(),
+                post.getLocation(),
+                post.getPlanName(),
+                post.getPriceFrom(),
+                post.getPriceTo(),
+                post.getPriceUnit(),
+                post.getCurrency(),
+                image,
+                post.getAverageRating(),
+                post.getReviewCount()
+        );
+    }
+}
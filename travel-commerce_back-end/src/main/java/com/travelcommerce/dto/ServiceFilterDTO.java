@@ -0,0 +1,16 @@
+package com.travelcommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Listing filters for GET /api/services/filter; null fields are not applied.
+@Data
+@NoArgsConstructor
+public class ServiceFilterDTO {
+    private String district;
+    private String category;
+    private Double priceFrom;   // lowest acceptable starting price
+    private Double priceTo;     // highest acceptable starting price
+    private String plan;        // premium, featured, standard or free
+    private Double minRating;   // minimum average rating (1-5)
+}
@@ -0,0 +1,6 @@
+package com.travelcommerce.exceptions;
+
+// The request is valid but clashes with the resource's current state (HTTP 409).
+public class ConflictException extends RuntimeException {
+    public ConflictException(String msg) { super(msg); }
+}
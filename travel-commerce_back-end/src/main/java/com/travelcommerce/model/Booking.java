@@ -2,17 +2,26 @@ package com.travelcommerce.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.Date;
 import java.util.Map;
 
 @Data
 @Document("bookings")
+@CompoundIndexes({
+    // Booking inboxes (newest first), see BookingService.
+    @CompoundIndex(name = "providerId_status_createdAt_id", def = "{'providerId': 1, 'status': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "travellerId_hidden_createdAt_id", def = "{'travellerId': 1, 'hiddenByTraveller': 1, 'createdAt': -1, '_id': -1}")
+})
 public class Booking {
     @Id
     private String id;
     private String travellerId;
     private String travellerName;
+    @Indexed // service cascade delete
     private String serviceId;
     private String serviceTitle;
     private String providerId;
@@ -20,6 +29,8 @@ public class Booking {
     private Map<String, Object> bookingDetails; // Dynamic fields based on category
     private Map<String, Object> pricingDetails; // Pricing info set by provider
     private Date bookingDate;
+    // True when this booking holds a unit of the service's daily capacity (slot_reservations)
+    private boolean slotReserved = false;
     private String status = "PENDING"; // PENDING, CONFIRMED, CANCELLED, COMPLETED
     // When true, booking is hidden from traveller's "My Bookings" view (provider still sees it)
     private boolean hiddenByTraveller = false;
@@ -0,0 +1,26 @@
+package com.travelcommerce.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// Outcome of a request sent with an Idempotency-Key header. _id is "<userId>:<key>" so claiming
+// a key is a single insert (see IdempotencyService); the TTL index drops records after a day.
+// An unfinished claim holds a short lease so a crashed request doesn't block the key for a day.
+@Data
+@Document("idempotency_keys")
+public class IdempotencyRecord {
+    @Id
+    private String id;
+    private String requestHash;      // SHA-256 of the request payload; a reused key must match it
+    private boolean completed;       // false while the first request is still running
+    private String owner;            // random token of the request holding the claim
+    private Date leaseExpiresAt;     // an unfinished claim past this may be taken over
+    private int responseStatus;
+    private String responseBody;     // JSON body sent to the first request
+    @Indexed(name = "createdAt_ttl", expireAfterSeconds = 86400)
+    private Date createdAt = new Date();
+}
@@ -2,6 +2,7 @@ package com.travelcommerce.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
@@ -25,7 +26,8 @@ public class Notification {
 
     private String message;          // human-readable notification text
     private String relatedId;        // bookingId or reviewId
-    private String serviceId;        // related service (for navigation)
+    @Indexed
+    private String serviceId;        // related service (for navigation); indexed for the service cascade delete
     private String serviceTitle;     // for display without extra lookup
 
     private boolean read = false;
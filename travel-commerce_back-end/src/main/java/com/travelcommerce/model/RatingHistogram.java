@@ -0,0 +1,55 @@
+package com.travelcommerce.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// Per-service 1-5 star distribution of top-level reviews, keyed by the service id.
+// Maintained with $inc on review writes (see RatingHistogramService).
+@Data
+@NoArgsConstructor
+@Document("rating_histograms")
+public class RatingHistogram {
+    @Id
+    private String serviceId;
+    private long star1;
+    private long star2;
+    private long star3;
+    private long star4;
+    private long star5;
+    private Date updatedAt;
+
+    public RatingHistogram(String serviceId) {
+        this.serviceId = serviceId;
+    }
+
+    // Counter field for a star rating, or null when the rating is outside 1-5.
+    public static String fieldFor(int rating) {
+        return rating >= 1 && rating <= 5 ? "star" + rating : null;
+    }
+
+    // Counter for a star rating (1-5).
+    public long count(int star) {
+        return switch (star) {
+            case 1 -> star1;
+            case 2 -> star2;
+            case 3 -> star3;
+            case 4 -> star4;
+            case 5 -> star5;
+            default -> throw new IllegalArgumentException("No counter for " + star + " stars");
+        };
+    }
+
+    public long getTotal() {
+        return star1 + star2 + star3 + star4 + star5;
+    }
+
+    public boolean sameCounts(RatingHistogram other) {
+        return other != null
+                && star1 == other.star1 && star2 == other.star2 && star3 == other.star3
+                && star4 == other.star4 && star5 == other.star5;
+    }
+}
@@ -2,6 +2,8 @@ package com.travelcommerce.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.annotation.Transient;
 import java.util.Date;
@@ -10,6 +12,20 @@ import java.util.ArrayList;
 
 @Data
 @Document("reviews")
+@CompoundIndexes({
+    @CompoundIndex(name = "serviceId_parentReviewId", def = "{'serviceId': 1, 'parentReviewId': 1}"),
+    // Keyset pages of top-level reviews (GET /api/reviews/service/{id}/page), per sort mode.
+    @CompoundIndex(name = "serviceId_parentReviewId_createdAt_id", def = "{'serviceId': 1, 'parentReviewId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "serviceId_parentReviewId_rating_id", def = "{'serviceId': 1, 'parentReviewId': 1, 'rating': -1, '_id': -1}"),
+    // Reply previews and GET /api/reviews/{id}/replies, oldest first.
+    @CompoundIndex(name = "parentReviewId_createdAt_id", def = "{'parentReviewId': 1, 'createdAt': 1, '_id': 1}"),
+    // Admin moderation feed (newest first), unfiltered and per service / author / rating.
+    // A service filter spans every parentReviewId, so the indexes above can't give its sort.
+    @CompoundIndex(name = "createdAt_id", def = "{'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "serviceId_createdAt_id", def = "{'serviceId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "travellerId_createdAt_id", def = "{'travellerId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "rating_createdAt_id", def = "{'rating': 1, 'createdAt': -1, '_id': -1}")
+})
 public class Review {
     @Id
     private String id;
@@ -25,4 +41,7 @@ public class Review {
     
     @Transient // Not stored in DB, populated at runtime
     private List<Review> replies = new ArrayList<>();
+
+    @Transient // Total replies when `replies` only holds a preview (paged endpoints)
+    private long replyCount;
 }
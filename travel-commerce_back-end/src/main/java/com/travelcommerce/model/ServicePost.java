@@ -2,7 +2,9 @@ package com.travelcommerce.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.Map;
 import java.util.List;
@@ -10,18 +12,36 @@ import java.util.Date;
 
 @Data
 @Document("services")
+@CompoundIndexes({
+    // Backs the keyset-paginated catalog: equality on status, then (planPriority, _id) order.
+    @CompoundIndex(name = "status_planPriority_id", def = "{'status': 1, 'planPriority': 1, '_id': 1}"),
+    // Faceted filter (GET /api/services/filter): equality filters first, range on price last.
+    @CompoundIndex(name = "status_district_category_planPriority", def = "{'status': 1, 'district': 1, 'category': 1, 'planPriority': 1}"),
+    @CompoundIndex(name = "status_category_planPriority", def = "{'status': 1, 'category': 1, 'planPriority': 1}"),
+    @CompoundIndex(name = "status_priceFrom", def = "{'status': 1, 'priceFrom': 1}")
+})
 public class ServicePost {
     @Id
     private String id;
     private String providerId;
+    // Weighted text index backing GET /api/services/search (one text index per collection).
+    @TextIndexed(weight = 10)
     private String title;
+    @TextIndexed(weight = 1)
     private String description;
+    @TextIndexed(weight = 3)
     private String district;
+    @TextIndexed(weight = 3)
     private String location;
+    @TextIndexed(weight = 5)
     private String category;
     private List<String> images;
     private String planId;
     private String planName; 
+
+    // Persisted sort rank derived from planName (1 = Premium ... 99 = no plan).
+    // Kept in sync by setPlanName so the catalog can be sorted/paged in MongoDB.
+    private int planPriority = 99;
     
     // Pricing fields
     private Double priceFrom;
@@ -29,6 +49,9 @@ public class ServicePost {
     private String priceUnit;
     private String currency;
     
+    // Max bookings per day; null = unlimited (see SlotReservationService)
+    private Integer dailyCapacity;
+
     // External booking site
     private String externalBookingUrl;
 
@@ -40,12 +63,13 @@ public class ServicePost {
     
     private Status status = Status.PENDING;
     private Date createdAt = new Date();
+    // Last write to the post (content, status or rating counters); drives the detail ETag.
+    private Date updatedAt;
 
-    @Transient
-    private Double averageRating;
+    // Running totals of top-level review ratings, maintained with $inc on review writes.
+    private long ratingSum;
+    private long ratingCount;
 
-    @Transient
-    private Long reviewCount;
 
     // 🟢 NEW: Stores the Admin's warning message
     private String adminMessage;
@@ -56,5 +80,42 @@ public class ServicePost {
     public String getAdminMessage() { return adminMessage; }
     public void setAdminMessage(String adminMessage) { this.adminMessage = adminMessage; }
 
+    // Derived from the persisted counters: exposed in JSON, never stored.
+    public Double getAverageRating() {
+        return ratingCount > 0 ? (double) ratingSum / ratingCount : 0.0;
+    }
+
+    public Long getReviewCount() {
+        return ratingCount;
+    }
+
+    public void setPlanName(String planName) {
+        this.planName = planName;
+        this.planPriority = planPriorityOf(planName);
+    }
+
+    // Tier label for a planPriority value (used for plan facets/filters).
+    public static String planTierOf(int planPriority) {
+        switch (planPriority) {
+            case 1: return "premium";
+            case 2: return "featured";
+            case 3: return "standard";
+            default: return "free";
+        }
+    }
+
+    // Determines Priority (1 = Highest, 99 = Lowest).
+    // We use keyword matching so it works even if plan names change slightly.
+    public static int planPriorityOf(String planName) {
+        if (planName == null) return 99; // No plan = Lowest priority
+        String lower = planName.toLowerCase();
+
+        if (lower.contains("premium")) return 1;   // 🥇 Premium Spotlight
+        if (lower.contains("featured")) return 2;  // 🥈 Featured Visibility
+        if (lower.contains("standard")) return 3;  // 🥉 Standard Listing
+
+        return 99; // Any other plan or free tier
+    }
+
 }
 
@@ -0,0 +1,22 @@
+package com.travelcommerce.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// Reserved booking count for one service on one day. _id is "<serviceId>:<yyyy-MM-dd>"
+// so a reservation is a single conditional upsert (see SlotReservationService).
+@Data
+@Document("slot_reservations")
+@CompoundIndex(name = "serviceId_date", def = "{'serviceId': 1, 'date': 1}")
+public class SlotReservation {
+    @Id
+    private String id;
+    private String serviceId;
+    private String date;      // yyyy-MM-dd (UTC)
+    private int reserved;
+    private Date updatedAt;
+}
@@ -2,6 +2,7 @@ package com.travelcommerce.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Data
@@ -13,6 +14,7 @@ public class User {
     private String email;
     private String telephone;
     private String password;
+    @Indexed // role-wide notification fan-out (NotificationFanoutService)
     private Role role;
     private Status status = Status.ACTIVE;
 }
@@ -2,6 +2,7 @@ package com.travelcommerce.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
@@ -13,6 +14,7 @@ public class Wishlist {
     private String id;
 
     private String userId;
+    @Indexed // service cascade delete
     private String serviceId;
 
     private Date createdAt = new Date();
@@ -3,6 +3,7 @@ package com.travelcommerce.repository;
 import com.travelcommerce.model.Booking;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,4 +12,8 @@ public interface BookingRepository extends MongoRepository<Booking, String> {
     List<Booking> findByTravellerIdAndHiddenByTravellerFalse(String travellerId);
     List<Booking> findByProviderId(String providerId);
     List<Booking> findByServiceId(String serviceId);
+
+    // Set-based deletes used by CascadeDeleteService.
+    long deleteByServiceIdIn(Collection<String> serviceIds);
+    long deleteByTravellerIdOrProviderId(String travellerId, String providerId);
 }
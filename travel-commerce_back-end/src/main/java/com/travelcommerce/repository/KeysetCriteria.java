@@ -0,0 +1,30 @@
+package com.travelcommerce.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Builds the "seek" predicate for keyset pagination over a (field, _id) sort.
+ * The matching index must be declared on the entity so the seek stays an index range scan.
+ */
+public final class KeysetCriteria {
+
+    private KeysetCriteria() {}
+
+    /**
+     * Rows strictly after (value, id) in the given direction, where ties on {@code field}
+     * are broken by {@code _id} in the same direction.
+     */
+    public static Criteria after(String field, Object value, String id, Sort.Direction direction) {
+        if (direction == Sort.Direction.ASC) {
+            return new Criteria().orOperator(
+                    Criteria.where(field).gt(value),
+                    new Criteria().andOperator(Criteria.where(field).is(value), Criteria.where("id").gt(id))
+            );
+        }
+        return new Criteria().orOperator(
+                Criteria.where(field).lt(value),
+                new Criteria().andOperator(Criteria.where(field).is(value), Criteria.where("id").lt(id))
+        );
+    }
+}
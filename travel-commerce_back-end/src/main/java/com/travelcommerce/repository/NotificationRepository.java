@@ -4,6 +4,8 @@ import com.travelcommerce.model.Notification;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 @Repository
@@ -11,4 +13,12 @@ public interface NotificationRepository extends MongoRepository<Notification, St
     List<Notification> findByRecipientIdOrderByCreatedAtDesc(String recipientId);
     long countByRecipientIdAndReadFalse(String recipientId);
     List<Notification> findByRecipientIdAndReadFalse(String recipientId);
+
+    // Set-based deletes used by CascadeDeleteService. The cutoff keeps notifications
+    // created by the delete itself (e.g. SERVICE_DELETED, USER_REMOVED).
+    long deleteByServiceIdInAndCreatedAtBefore(Collection<String> serviceIds, Date cutoff);
+    long deleteByRecipientIdAndCreatedAtBefore(String recipientId, Date cutoff);
+
+    // "Clear all" in one deleteMany (NotificationService.deleteAllForUser).
+    long deleteByRecipientId(String recipientId);
 }
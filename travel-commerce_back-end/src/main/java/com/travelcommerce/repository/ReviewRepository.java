@@ -1,9 +1,14 @@
 package com.travelcommerce.repository;
 
+import com.travelcommerce.dto.RatingSummaryDTO;
+import com.travelcommerce.model.RatingHistogram;
 import com.travelcommerce.model.Review;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReviewRepository extends MongoRepository<Review, String> {
@@ -11,4 +16,45 @@ public interface ReviewRepository extends MongoRepository<Review, String> {
     List<Review> findByTravellerId(String travellerId);
     List<Review> findByParentReviewId(String parentReviewId);
     List<Review> findByServiceIdAndParentReviewIdIsNull(String serviceId); // Get only top-level reviews
+
+    // Set-based deletes (one deleteMany each) used by CascadeDeleteService.
+    long deleteByParentReviewId(String parentReviewId);
+    long deleteByParentReviewIdIn(Collection<String> parentReviewIds);
+    long deleteByServiceIdIn(Collection<String> serviceIds);
+    long deleteByTravellerId(String travellerId);
+
+    // Average + count of top-level reviews for many services in one round trip.
+    // Replies are stored with rating 0 and must not drag the average down.
+    @Aggregation(pipeline = {
+        "{ $match: { serviceId: { $in: ?0 }, $or: [ { parentReviewId: null }, { parentReviewId: '' } ] } }",
+        "{ $group: { _id: '$serviceId', ratingSum: { $sum: '$rating' }, averageRating: { $avg: '$rating' }, reviewCount: { $sum: 1 } } }"
+    })
+    List<RatingSummaryDTO> summarizeRatings(Collection<String> serviceIds);
+
+    // Same summary for every service; streamed by the rating repair job.
+    @Aggregation(pipeline = {
+        "{ $match: { $or: [ { parentReviewId: null }, { parentReviewId: '' } ] } }",
+        "{ $group: { _id: '$serviceId', ratingSum: { $sum: '$rating' }, averageRating: { $avg: '$rating' }, reviewCount: { $sum: 1 } } }"
+    })
+    Stream<RatingSummaryDTO> summarizeAllRatings();
+
+    // 1-5 star counts of top-level reviews, shaped like the rating_histograms documents.
+    @Aggregation(pipeline = {
+        "{ $match: { serviceId: { $in: ?0 }, $or: [ { parentReviewId: null }, { parentReviewId: '' } ] } }",
+        HISTOGRAM_GROUP
+    })
+    List<RatingHistogram> summarizeHistograms(Collection<String> serviceIds);
+
+    @Aggregation(pipeline = {
+        "{ $match: { $or: [ { parentReviewId: null }, { parentReviewId: '' } ] } }",
+        HISTOGRAM_GROUP
+    })
+    Stream<RatingHistogram> summarizeAllHistograms();
+
+    String HISTOGRAM_GROUP = "{ $group: { _id: '$serviceId', "
+            + "star1: { $sum: { $cond: [ { $eq: [ '$rating', 1 ] }, 1, 0 ] } }, "
+            + "star2: { $sum: { $cond: [ { $eq: [ '$rating', 2 ] }, 1, 0 ] } }, "
+            + "star3: { $sum: { $cond: [ { $eq: [ '$rating', 3 ] }, 1, 0 ] } }, "
+            + "star4: { $sum: { $cond: [ { $eq: [ '$rating', 4 ] }, 1, 0 ] } }, "
+            + "star5: { $sum: { $cond: [ { $eq: [ '$rating', 5 ] }, 1, 0 ] } } } }";
 }
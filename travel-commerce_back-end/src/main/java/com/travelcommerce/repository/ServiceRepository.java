@@ -17,10 +17,10 @@ public interface ServiceRepository extends MongoRepository<ServicePost, String>
     // 🔴 MY ADMIN / TRAVELLER EXTENSIONS
     // ==================================================================================
 
-    // 1. Used by Admin Dashboard to search
-    List<ServicePost> findByTitleContainingIgnoreCaseOrCategoryContainingIgnoreCase(String title, String category);
+    // Keyword search moved to the text index (ServicePostService.searchText); the old
+    // ...ContainingIgnoreCase finder compiled to an unanchored regex and scanned the collection.
 
-    // 2. 🟢 NEW: Used by Traveller Dashboard to filter only "ACTIVE" posts
+    // 🟢 NEW: Used by Traveller Dashboard to filter only "ACTIVE" posts
     List<ServicePost> findByStatus(String status);
 }
 
@@ -4,6 +4,7 @@ import com.travelcommerce.model.Wishlist;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,4 +17,8 @@ public interface WishlistRepository extends MongoRepository<Wishlist, String> {
     void deleteByUserIdAndServiceId(String userId, String serviceId);
 
     List<Wishlist> findByUserId(String userId);
+
+    // Set-based deletes used by CascadeDeleteService.
+    long deleteByServiceIdIn(Collection<String> serviceIds);
+    long deleteByUserId(String userId);
 }
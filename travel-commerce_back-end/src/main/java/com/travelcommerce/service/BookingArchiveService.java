@@ -0,0 +1,132 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.model.Booking;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves finished bookings out of the hot {@code bookings} collection into
+ * {@code bookings_archive} so provider/traveller queries and their indexes only carry
+ * live data.
+ *
+ * A booking is archived once it has been CANCELLED or COMPLETED for
+ * {@code app.bookings.archive-after-days} (default 180), or sooner -
+ * {@code app.bookings.archive-hidden-after-days} (default 30) - when the traveller has
+ * already hidden it. Each batch is upserted into the archive first and only then deleted
+ * from the hot tier, so an interrupted run leaves at worst a copy in both, which the next
+ * run overwrites. Readers that ask for archived bookings dedupe by id.
+ */
+@Service
+public class BookingArchiveService {
+
+    public static final String ARCHIVE_COLLECTION = "bookings_archive";
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingArchiveService.class);
+    private static final List<String> FINISHED = List.of("CANCELLED", "COMPLETED");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.bookings.archive-after-days:180}")
+    private int archiveAfterDays;
+
+    @Value("${app.bookings.archive-hidden-after-days:30}")
+    private int archiveHiddenAfterDays;
+
+    @Value("${app.bookings.archive-batch-size:500}")
+    private int batchSize;
+
+    /** Archived bookings matching {@code query} (same fields and indexes as the hot tier). */
+    public List<Booking> findArchived(Query query) {
+        return mongoTemplate.find(query, Booking.class, ARCHIVE_COLLECTION);
+    }
+
+    public Booking findArchivedById(String id) {
+        return mongoTemplate.findById(id, Booking.class, ARCHIVE_COLLECTION);
+    }
+
+    /**
+     * Archives every eligible booking, {@code app.bookings.archive-batch-size} at a time.
+     *
+     * @return number of bookings moved
+     */
+    public long archiveFinished() {
+        long now = System.currentTimeMillis();
+        Date cutoff = new Date(now - Duration.ofDays(archiveAfterDays).toMillis());
+        Date hiddenCutoff = new Date(now - Duration.ofDays(archiveHiddenAfterDays).toMillis());
+        Criteria eligible = new Criteria().andOperator(
+                Criteria.where("status").in(FINISHED),
+                new Criteria().orOperator(
+                        Criteria.where("updatedAt").lt(cutoff),
+                        new Criteria().andOperator(
+                                Criteria.where("hiddenByTraveller").is(true),
+                                Criteria.where("updatedAt").lt(hiddenCutoff))));
+
+        long moved = 0;
+        Set<String> providers = new LinkedHashSet<>();
+        String lastId = null;
+        while (true) {
+            Query batchQuery = new Query(lastId == null ? eligible
+                    : new Criteria().andOperator(eligible, Criteria.where("id").gt(lastId)))
+                    .with(Sort.by("id"))
+                    .limit(batchSize);
+            List<Booking> batch = mongoTemplate.find(batchQuery, Booking.class);
+            if (batch.isEmpty()) break;
+
+            BulkOperations copy = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Booking.class, ARCHIVE_COLLECTION);
+            for (Booking booking : batch) {
+                copy.replaceOne(new Query(Criteria.where("id").is(booking.getId())), booking,
+                        FindAndReplaceOptions.options().upsert());
+                providers.add(booking.getProviderId());
+            }
+            copy.execute();
+
+            // Same eligibility filter: a booking touched since it was read stays hot until the next run.
+            List<String> ids = batch.stream().map(Booking::getId).toList();
+            moved += mongoTemplate.remove(
+                    new Query(new Criteria().andOperator(eligible, Criteria.where("id").in(ids))),
+                    Booking.class).getDeletedCount();
+
+            if (batch.size() < batchSize) break;
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        providers.remove(null);
+        providers.forEach(p -> eventPublisher.publishEvent(new BookingChangedEvent(p)));
+        return moved;
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.bookings.archive-interval-ms:21600000}",
+            fixedDelayString = "${app.bookings.archive-interval-ms:21600000}"
+    )
+    public void scheduledArchive() {
+        try {
+            long moved = archiveFinished();
+            if (moved > 0) {
+                logger.info("Booking archiver moved {} finished booking(s) to {}", moved, ARCHIVE_COLLECTION);
+            }
+        } catch (Exception e) {
+            logger.warn("Booking archiver skipped: {}", e.getMessage());
+        }
+    }
+}
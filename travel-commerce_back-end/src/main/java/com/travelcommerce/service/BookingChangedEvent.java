@@ -0,0 +1,16 @@
+package com.travelcommerce.service;
+
+/**
+ * Published by {@link BookingService} after a booking is created, changes status or is deleted.
+ * Caches derived from a provider's bookings (e.g. provider analytics) evict on it.
+ */
+public final class BookingChangedEvent {
+
+    private final String providerId;
+
+    public BookingChangedEvent(String providerId) {
+        this.providerId = providerId;
+    }
+
+    public String getProviderId() { return providerId; }
+}
@@ -0,0 +1,393 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.dto.BookingFilterDTO;
+import com.travelcommerce.dto.BookingRowDTO;
+import com.travelcommerce.dto.BulkStatusResultDTO;
+import com.travelcommerce.dto.CursorPageDTO;
+import com.travelcommerce.dto.KeysetCursor;
+import com.travelcommerce.exceptions.ConflictException;
+import com.travelcommerce.exceptions.ResourceNotFoundException;
+import com.travelcommerce.model.Booking;
+import com.travelcommerce.model.ServicePost;
+import com.travelcommerce.repository.BookingRepository;
+import com.travelcommerce.repository.KeysetCriteria;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Booking reads (paged inboxes) and writes (status state machine) that need more than
+ * a plain repository call. Writes that change what a provider sees publish a
+ * {@link BookingChangedEvent}.
+ */
+@Service
+public class BookingService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_BULK_SIZE = 100;
+
+    private static final List<String> STATUSES = List.of("PENDING", "CONFIRMED", "CANCELLED", "COMPLETED");
+
+    // Booking state machine: target status -> statuses it may be reached from.
+    // PENDING -> CONFIRMED -> COMPLETED, and PENDING -> CANCELLED.
+    private static final Map<String, List<String>> ALLOWED_FROM = Map.of(
+            "CONFIRMED", List.of("PENDING"),
+            "COMPLETED", List.of("CONFIRMED"),
+            "CANCELLED", List.of("PENDING")
+    );
+    private static final List<String> FINISHED = List.of("CANCELLED", "COMPLETED");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SlotReservationService slotReservations;
+
+    @Autowired
+    private BookingArchiveService archive;
+
+    // ==================================================================================
+    // WRITES
+    // ==================================================================================
+
+    /**
+     * Saves a new booking, first taking a unit of the service's daily capacity when it has one.
+     *
+     * @throws IllegalArgumentException when a capacity-limited service gets no booking date
+     * @throws ConflictException when that day is already fully booked
+     */
+    public Booking create(Booking booking, ServicePost service) {
+        booking.setSlotReserved(false); // never trust the client's value
+        Integer capacity = service.getDailyCapacity();
+        if (capacity != null && capacity > 0) {
+            if (booking.getBookingDate() == null) {
+                throw new IllegalArgumentException("A booking date is required for this service");
+            }
+            if (!slotReservations.reserve(service, booking.getBookingDate())) {
+                throw new ConflictException("This service is fully booked on the selected date");
+            }
+            booking.setSlotReserved(true);
+        }
+        Booking saved;
+        try {
+            saved = bookingRepository.save(booking);
+        } catch (RuntimeException e) {
+            releaseSlot(booking);
+            throw e;
+        }
+        eventPublisher.publishEvent(new BookingChangedEvent(saved.getProviderId()));
+        return saved;
+    }
+
+    /**
+     * Removes a booking, giving its slot back when it still held one. The status filter is part
+     * of the remove, so a racing cancel or a second delete can't release the same slot twice.
+     *
+     * @param pendingOnly when true (traveller deletes) only a PENDING booking may be removed
+     * @return the removed booking as it was stored
+     * @throws ResourceNotFoundException when the booking is already gone
+     * @throws ConflictException when pendingOnly and the booking is no longer PENDING
+     */
+    public Booking delete(String bookingId, boolean pendingOnly) {
+        List<String> open = pendingOnly ? List.of("PENDING") : List.of("PENDING", "CONFIRMED");
+        Booking removed = mongoTemplate.findAndRemove(
+                new Query(Criteria.where("id").is(bookingId).and("status").in(open)), Booking.class);
+        if (removed != null) {
+            releaseSlot(removed);
+        } else if (pendingOnly) {
+            if (!bookingRepository.existsById(bookingId)) {
+                throw new ResourceNotFoundException("Booking not found");
+            }
+            throw new ConflictException("Only pending bookings can be cancelled");
+        } else {
+            // Finished (cancelled / completed) bookings already gave their slot back.
+            removed = mongoTemplate.findAndRemove(
+                    new Query(Criteria.where("id").is(bookingId).and("status").nin(open)), Booking.class);
+            if (removed == null) throw new ResourceNotFoundException("Booking not found");
+        }
+        eventPublisher.publishEvent(new BookingChangedEvent(removed.getProviderId()));
+        return removed;
+    }
+
+    private void releaseSlot(Booking booking) {
+        if (booking.isSlotReserved()) {
+            slotReservations.release(booking.getServiceId(), booking.getBookingDate());
+        }
+    }
+
+    // ==================================================================================
+    // STATUS TRANSITIONS
+    // ==================================================================================
+    // Each transition is one conditional findAndModify: the filter carries the owner and the
+    // allowed current statuses, so concurrent actions can't both win or overwrite each other.
+    // Only when nothing matched is the booking read again to report why (404 / 403 / 409).
+
+    /**
+     * Provider moves a booking along the state machine.
+     *
+     * @throws IllegalArgumentException for an unknown or unreachable target status
+     * @throws ResourceNotFoundException / AccessDeniedException / ConflictException as above
+     */
+    public Booking providerTransition(String bookingId, String providerId, String targetStatus) {
+        String target = targetStatus == null ? "" : targetStatus.trim().toUpperCase();
+        List<String> from = ALLOWED_FROM.get(target);
+        if (from == null) {
+            throw new IllegalArgumentException("Cannot change a booking to status: " + targetStatus);
+        }
+        Booking updated = conditionalUpdate(bookingId, "providerId", providerId,
+                Criteria.where("status").in(from),
+                new Update().set("status", target),
+                "Booking can't move to " + target);
+        if ("CANCELLED".equals(target)) releaseSlot(updated);
+        eventPublisher.publishEvent(new BookingChangedEvent(updated.getProviderId()));
+        return updated;
+    }
+
+    /**
+     * Provider moves many of their bookings to one status with a single updateMulti.
+     * Ids that are unknown, belong to another provider or can't reach the target from their
+     * current status are skipped rather than failing the whole batch.
+     *
+     * @throws IllegalArgumentException for an unknown target status, or no / too many ids
+     */
+    public BulkStatusResultDTO providerBulkTransition(Collection<String> bookingIds, String providerId,
+                                                      String targetStatus) {
+        String target = targetStatus == null ? "" : targetStatus.trim().toUpperCase();
+        List<String> from = ALLOWED_FROM.get(target);
+        if (from == null) {
+            throw new IllegalArgumentException("Cannot change a booking to status: " + targetStatus);
+        }
+        LinkedHashSet<String> ids = new LinkedHashSet<>();
+        if (bookingIds != null) {
+            for (String id : bookingIds) {
+                if (id != null && !id.isBlank()) ids.add(id);
+            }
+        }
+        if (ids.isEmpty() || ids.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("Provide between 1 and " + MAX_BULK_SIZE + " booking ids");
+        }
+
+        Criteria eligible = new Criteria().andOperator(
+                Criteria.where("id").in(ids),
+                Criteria.where("providerId").is(providerId),
+                Criteria.where("status").in(from));
+        Query candidatesQuery = new Query(eligible);
+        candidatesQuery.fields().include(BookingRowDTO.PROJECTED_FIELDS).include("slotReserved");
+        List<Booking> candidates = mongoTemplate.find(candidatesQuery, Booking.class);
+        if (candidates.isEmpty()) {
+            return new BulkStatusResultDTO(target, List.of(), new ArrayList<>(ids));
+        }
+
+        // Same status guard as the read, so a booking changed in between is not overwritten.
+        // The shared updatedAt stamp identifies this batch's writes if some of them lost a race.
+        Date stamp = new Date();
+        List<String> candidateIds = candidates.stream().map(Booking::getId).toList();
+        long modified = mongoTemplate.updateMulti(
+                new Query(new Criteria().andOperator(
+                        Criteria.where("id").in(candidateIds),
+                        Criteria.where("status").in(from))),
+                new Update().set("status", target).set("updatedAt", stamp),
+                Booking.class).getModifiedCount();
+        if (modified < candidates.size()) {
+            Query applied = new Query(new Criteria().andOperator(
+                    Criteria.where("id").in(candidateIds),
+                    Criteria.where("status").is(target),
+                    Criteria.where("updatedAt").is(stamp)));
+            applied.fields().include("id");
+            List<String> appliedIds = mongoTemplate.find(applied, Booking.class).stream().map(Booking::getId).toList();
+            candidates.removeIf(b -> !appliedIds.contains(b.getId()));
+        }
+
+        List<BookingRowDTO> updated = new ArrayList<>(candidates.size());
+        for (Booking booking : candidates) {
+            booking.setStatus(target);
+            booking.setUpdatedAt(stamp);
+            if ("CANCELLED".equals(target)) releaseSlot(booking);
+            updated.add(BookingRowDTO.from(booking));
+            ids.remove(booking.getId());
+        }
+        if (!updated.isEmpty()) {
+            eventPublisher.publishEvent(new BookingChangedEvent(providerId));
+        }
+        return new BulkStatusResultDTO(target, updated, new ArrayList<>(ids));
+    }
+
+    /** Traveller cancels their own booking; only PENDING bookings can be cancelled. */
+    public Booking travellerCancel(String bookingId, String travellerId) {
+        Booking updated = conditionalUpdate(bookingId, "travellerId", travellerId,
+                Criteria.where("status").in(ALLOWED_FROM.get("CANCELLED")),
+                new Update().set("status", "CANCELLED"),
+                "Only pending bookings can be cancelled");
+        releaseSlot(updated);
+        eventPublisher.publishEvent(new BookingChangedEvent(updated.getProviderId()));
+        return updated;
+    }
+
+    /** Hides a finished (CANCELLED / COMPLETED) booking from the traveller's inbox. */
+    public Booking hideForTraveller(String bookingId, String travellerId) {
+        return conditionalUpdate(bookingId, "travellerId", travellerId,
+                Criteria.where("status").in(FINISHED),
+                new Update().set("hiddenByTraveller", true),
+                "Only completed or cancelled bookings can be removed");
+    }
+
+    private Booking conditionalUpdate(String bookingId, String ownerField, String ownerId,
+                                      Criteria statusCondition, Update update, String conflictMessage) {
+        Query query = new Query(new Criteria().andOperator(
+                Criteria.where("id").is(bookingId),
+                Criteria.where(ownerField).is(ownerId),
+                statusCondition));
+        Booking updated = mongoTemplate.findAndModify(
+                query,
+                update.set("updatedAt", new Date()),
+                FindAndModifyOptions.options().returnNew(true),
+                Booking.class);
+        if (updated != null) return updated;
+
+        Booking current = mongoTemplate.findById(bookingId, Booking.class);
+        if (current == null) {
+            throw new ResourceNotFoundException("Booking not found");
+        }
+        if (!ownerId.equals("providerId".equals(ownerField) ? current.getProviderId() : current.getTravellerId())) {
+            throw new AccessDeniedException("Not authorized to update this booking");
+        }
+        throw new ConflictException(conflictMessage + " (current status: " + current.getStatus() + ")");
+    }
+
+    // ==================================================================================
+    // INBOXES
+    // ==================================================================================
+
+    /**
+     * Provider inbox, newest first. Seeks on the (providerId, status, createdAt) index.
+     *
+     * @throws IllegalArgumentException for an unknown status or a malformed cursor
+     */
+    public CursorPageDTO<BookingRowDTO> findProviderInbox(String providerId, BookingFilterDTO filter,
+                                                          String cursor, int limit) {
+        return findInbox(Criteria.where("providerId").is(providerId), filter, cursor, limit);
+    }
+
+    /**
+     * Traveller inbox ("My Bookings"), newest first, without bookings the traveller hid.
+     * Seeks on the (travellerId, hiddenByTraveller, createdAt) index.
+     *
+     * @throws IllegalArgumentException for an unknown status or a malformed cursor
+     */
+    public CursorPageDTO<BookingRowDTO> findTravellerInbox(String travellerId, BookingFilterDTO filter,
+                                                           String cursor, int limit) {
+        Criteria owner = new Criteria().andOperator(
+                Criteria.where("travellerId").is(travellerId),
+                Criteria.where("hiddenByTraveller").is(false));
+        return findInbox(owner, filter, cursor, limit);
+    }
+
+    private CursorPageDTO<BookingRowDTO> findInbox(Criteria owner, BookingFilterDTO filter, String cursor, int limit) {
+        int pageSize = limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(owner);
+        List<String> statuses = normalizeStatuses(filter.getStatus());
+        if (!statuses.isEmpty()) {
+            filters.add(Criteria.where("status").in(statuses));
+        }
+        if (filter.getFrom() != null || filter.getTo() != null) {
+            Criteria created = Criteria.where("createdAt");
+            if (filter.getFrom() != null) created.gte(startOfDay(filter.getFrom()));
+            if (filter.getTo() != null) created.lt(startOfDay(filter.getTo().plusDays(1)));
+            filters.add(created);
+        }
+        if (after != null) {
+            Date createdAt;
+            try {
+                createdAt = new Date(after.keyAsLong());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            filters.add(KeysetCriteria.after("createdAt", createdAt, after.getId(), Sort.Direction.DESC));
+        }
+
+        Query query = new Query(new Criteria().andOperator(filters.toArray(new Criteria[0])))
+                .with(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")))
+                .limit(pageSize + 1);
+        query.fields().include(BookingRowDTO.PROJECTED_FIELDS);
+
+        List<Booking> rows = mongoTemplate.find(query, Booking.class);
+        if (filter.isIncludeArchived()) {
+            rows = mergeNewestFirst(rows, archive.findArchived(query), pageSize + 1);
+        }
+        boolean hasMore = rows.size() > pageSize;
+        List<Booking> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        List<BookingRowDTO> items = new ArrayList<>(page.size());
+        for (Booking b : page) {
+            items.add(BookingRowDTO.from(b));
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            Booking last = page.get(page.size() - 1);
+            long stamp = last.getCreatedAt() != null ? last.getCreatedAt().getTime() : 0L;
+            nextCursor = new KeysetCursor(String.valueOf(stamp), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    // Both tiers were read with the same filter and keyset, so merging their first pages gives
+    // the combined page. A booking caught mid-archive can be in both; the hot copy wins.
+    private static List<Booking> mergeNewestFirst(List<Booking> hot, List<Booking> archived, int limit) {
+        Map<String, Booking> byId = new LinkedHashMap<>();
+        for (Booking b : archived) byId.put(b.getId(), b);
+        for (Booking b : hot) byId.put(b.getId(), b);
+        Comparator<Date> newestFirst = Comparator.nullsLast(Comparator.reverseOrder());
+        return byId.values().stream()
+                .sorted(Comparator.comparing(Booking::getCreatedAt, newestFirst)
+                        .thenComparing(Booking::getId, Comparator.reverseOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    private static List<String> normalizeStatuses(List<String> raw) {
+        List<String> statuses = new ArrayList<>();
+        if (raw == null) return statuses;
+        for (String s : raw) {
+            if (s == null || s.isBlank()) continue;
+            String upper = s.trim().toUpperCase();
+            if (!STATUSES.contains(upper)) {
+                throw new IllegalArgumentException("Unknown status: " + s);
+            }
+            statuses.add(upper);
+        }
+        return statuses;
+    }
+
+    // Date filters are calendar days in UTC, the same on every server.
+    private static Date startOfDay(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+}
@@ -0,0 +1,193 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.config.TaskConfig;
+import com.travelcommerce.model.Booking;
+import com.travelcommerce.model.Notification;
+import com.travelcommerce.model.Review;
+import com.travelcommerce.model.ServicePost;
+import com.travelcommerce.model.SlotReservation;
+import com.travelcommerce.repository.BookingRepository;
+import com.travelcommerce.repository.NotificationRepository;
+import com.travelcommerce.repository.ReviewRepository;
+import com.travelcommerce.repository.ServiceRepository;
+import com.travelcommerce.repository.WishlistRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Removes the rows that depend on a deleted review, service or user.
+ *
+ * Every dependent collection is cleared with one deleteMany (derived {@code deleteBy...}
+ * repository methods) instead of loading and deleting rows one by one. Service and user
+ * cascades can touch many rows, so they run on the maintenance pool after the owning
+ * document is gone; each logs, and returns, how many rows it removed per collection.
+ * Recipients who lose unread notifications have their cached unread count reseeded.
+ */
+@Service
+public class CascadeDeleteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CascadeDeleteService.class);
+
+    private static final List<String> OPEN_STATUSES = List.of("PENDING", "CONFIRMED");
+
+    @Autowired private ReviewRepository reviewRepository;
+    @Autowired private BookingRepository bookingRepository;
+    @Autowired private WishlistRepository wishlistRepository;
+    @Autowired private NotificationRepository notificationRepository;
+    @Autowired private ServiceRepository serviceRepository;
+    @Autowired private RatingAggregateService ratingAggregates;
+    @Autowired private RatingHistogramService histograms;
+    @Autowired private CatalogSnapshotService catalogSnapshot;
+    @Autowired private UnreadCountCache unreadCounts;
+    @Autowired private SlotReservationService slotReservations;
+    @Autowired private NotificationStreamService notificationStream;
+    @Autowired private MongoTemplate mongoTemplate;
+
+    /** Deletes the replies of one review in a single round trip. */
+    public long deleteReplies(String reviewId) {
+        return reviewRepository.deleteByParentReviewId(reviewId);
+    }
+
+    /**
+     * Cascade for a deleted service post: its reviews (and their replies), bookings,
+     * slot reservations, wishlist rows, and notifications about it created before {@code cutoff}.
+     */
+    @Async(TaskConfig.MAINTENANCE_EXECUTOR)
+    public CompletableFuture<Map<String, Long>> serviceDeleted(String serviceId, Date cutoff) {
+        Map<String, Long> report = new LinkedHashMap<>();
+        try {
+            deleteServiceDependents(List.of(serviceId), cutoff, report);
+            logger.info("Cascade delete for service {} removed {}", serviceId, report);
+        } catch (Exception e) {
+            logger.warn("Cascade delete for service {} failed after {}: {}", serviceId, report, e.getMessage());
+        }
+        return CompletableFuture.completedFuture(report);
+    }
+
+    /**
+     * Cascade for a deleted user: their services (with those services' dependents), their
+     * reviews and the replies under them, bookings on either side, wishlist rows, and
+     * notifications addressed to them created before {@code cutoff}. Services that lose
+     * reviews get their rating counters recomputed.
+     */
+    @Async(TaskConfig.MAINTENANCE_EXECUTOR)
+    public CompletableFuture<Map<String, Long>> userDeleted(String userId, Date cutoff) {
+        Map<String, Long> report = new LinkedHashMap<>();
+        try {
+            // Provider side: their listings and everything hanging off them.
+            List<String> serviceIds = mongoTemplate.findDistinct(
+                    new Query(Criteria.where("providerId").is(userId)), "_id", ServicePost.class, Object.class)
+                    .stream().map(String::valueOf).toList();
+            if (!serviceIds.isEmpty()) {
+                long removed = mongoTemplate.remove(
+                        new Query(Criteria.where("providerId").is(userId)), ServicePost.class).getDeletedCount();
+                report.put("services", removed);
+                serviceIds.forEach(catalogSnapshot::remove);
+                deleteServiceDependents(serviceIds, cutoff, report);
+            }
+
+            // Traveller side: their top-level reviews take other users' replies with them.
+            Query ownTopLevel = new Query(new Criteria().andOperator(
+                    Criteria.where("travellerId").is(userId),
+                    Criteria.where("parentReviewId").in(Arrays.asList(null, ""))));
+            ownTopLevel.fields().include("serviceId");
+            List<String> reviewIds = new ArrayList<>();
+            Set<String> ratedServices = new LinkedHashSet<>();
+            for (Review r : mongoTemplate.find(ownTopLevel, Review.class)) {
+                reviewIds.add(r.getId());
+                if (r.getServiceId() != null) ratedServices.add(r.getServiceId());
+            }
+            long replies = reviewIds.isEmpty() ? 0 : reviewRepository.deleteByParentReviewIdIn(reviewIds);
+            add(report, "reviews", reviewRepository.deleteByTravellerId(userId) + replies);
+            ratedServices.removeAll(serviceIds);
+            ratingAggregates.reconcile(ratedServices);
+
+            releaseTravellerSlots(userId);
+            add(report, "bookings", bookingRepository.deleteByTravellerIdOrProviderId(userId, userId));
+            add(report, BookingArchiveService.ARCHIVE_COLLECTION, mongoTemplate.remove(
+                    new Query(new Criteria().orOperator(
+                            Criteria.where("travellerId").is(userId),
+                            Criteria.where("providerId").is(userId))),
+                    BookingArchiveService.ARCHIVE_COLLECTION).getDeletedCount());
+            add(report, "wishlists", wishlistRepository.deleteByUserId(userId));
+            add(report, "notifications", notificationRepository.deleteByRecipientIdAndCreatedAtBefore(userId, cutoff));
+            unreadCounts.invalidate(userId);
+
+            logger.info("Cascade delete for user {} removed {}", userId, report);
+        } catch (Exception e) {
+            logger.warn("Cascade delete for user {} failed after {}: {}", userId, report, e.getMessage());
+        }
+        return CompletableFuture.completedFuture(report);
+    }
+
+    // Reviews are removed by serviceId, which covers replies too (they inherit the parent's serviceId).
+    private void deleteServiceDependents(List<String> serviceIds, Date cutoff, Map<String, Long> report) {
+        add(report, "reviews", reviewRepository.deleteByServiceIdIn(serviceIds));
+        add(report, "bookings", bookingRepository.deleteByServiceIdIn(serviceIds));
+        add(report, BookingArchiveService.ARCHIVE_COLLECTION, mongoTemplate.remove(
+                new Query(Criteria.where("serviceId").in(serviceIds)),
+                BookingArchiveService.ARCHIVE_COLLECTION).getDeletedCount());
+        add(report, "slot_reservations", mongoTemplate.remove(
+                new Query(Criteria.where("serviceId").in(serviceIds)), SlotReservation.class).getDeletedCount());
+        add(report, "wishlists", wishlistRepository.deleteByServiceIdIn(serviceIds));
+
+        List<String> unreadRecipients = mongoTemplate.findDistinct(
+                new Query(Criteria.where("serviceId").in(serviceIds).and("createdAt").lt(cutoff).and("read").is(false)),
+                "recipientId", Notification.class, String.class);
+        add(report, "notifications", notificationRepository.deleteByServiceIdInAndCreatedAtBefore(serviceIds, cutoff));
+        for (String recipientId : unreadRecipients) {
+            unreadCounts.invalidate(recipientId);
+            notificationStream.unreadCountChanged(recipientId);
+        }
+
+        add(report, "rating_histograms", histograms.deleteFor(serviceIds));
+    }
+
+    // The deleted traveller's open bookings on other providers' services still hold slot units.
+    // Each is removed with a status-guarded findAndRemove (as in BookingService.delete), so a
+    // booking cancelled meanwhile - which already gave its unit back - is not released twice;
+    // the units are then returned with one $inc per service and day.
+    private void releaseTravellerSlots(String userId) {
+        Query holding = new Query(new Criteria().andOperator(
+                Criteria.where("travellerId").is(userId),
+                Criteria.where("slotReserved").is(true),
+                Criteria.where("status").in(OPEN_STATUSES)));
+        holding.fields().include("id");
+        Map<String, Integer> unitsBySlot = new LinkedHashMap<>();
+        Map<String, Booking> slotBooking = new HashMap<>();
+        for (Booking candidate : mongoTemplate.find(holding, Booking.class)) {
+            Booking removed = mongoTemplate.findAndRemove(
+                    new Query(Criteria.where("id").is(candidate.getId()).and("status").in(OPEN_STATUSES)),
+                    Booking.class);
+            if (removed == null || removed.getServiceId() == null || removed.getBookingDate() == null) continue;
+            String slot = removed.getServiceId() + ":" + SlotReservationService.dayOf(removed.getBookingDate());
+            unitsBySlot.merge(slot, 1, Integer::sum);
+            slotBooking.putIfAbsent(slot, removed);
+        }
+        unitsBySlot.forEach((slot, units) -> {
+            Booking b = slotBooking.get(slot);
+            slotReservations.release(b.getServiceId(), b.getBookingDate(), units);
+        });
+    }
+
+    private static void add(Map<String, Long> report, String collection, long removed) {
+        report.merge(collection, removed, Long::sum);
+    }
+}
@@ -0,0 +1,16 @@
+package com.travelcommerce.service;
+
+/**
+ * Published by {@link CatalogSnapshotService} after a new catalog snapshot version goes live.
+ * Listeners that derive data from the snapshot (e.g. the serialized response cache) rebuild on it.
+ */
+public final class CatalogChangedEvent {
+
+    private final long version;
+
+    public CatalogChangedEvent(long version) {
+        this.version = version;
+    }
+
+    public long getVersion() { return version; }
+}
@@ -0,0 +1,129 @@
+package com.travelcommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelcommerce.config.TaskConfig;
+import com.travelcommerce.model.ServicePost;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized public catalog bodies (identity JSON + gzip), keyed by snapshot version and sort.
+ *
+ * Every anonymous visitor gets the same bytes for a given version, so they are encoded once and
+ * written straight from the cached arrays. A {@link CatalogChangedEvent} rebuilds the sort modes
+ * that have been requested so far on the maintenance pool; a request only builds inline when it
+ * is the first one for a sort mode or beats the rebuild.
+ */
+@Service
+public class CatalogResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogResponseCache.class);
+
+    /** One encoded catalog body. The arrays are shared and must not be modified. */
+    public static final class Entry {
+        private final long version;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        Entry(long version, byte[] json, byte[] gzip) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public long getVersion() { return version; }
+        public byte[] getJson() { return json; }
+        public byte[] getGzip() { return gzip; }
+    }
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshot;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<CatalogSort, Entry> entries = new EnumMap<>(CatalogSort.class);
+
+    /** Encoded body for the current snapshot in the given sort order. */
+    public Entry get(CatalogSort sort) {
+        CatalogSnapshot snapshot = catalogSnapshot.current();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(sort);
+        }
+        if (entry != null && entry.getVersion() == snapshot.getVersion()) {
+            return entry;
+        }
+        return install(sort, build(snapshot, sort));
+    }
+
+    @Async(TaskConfig.MAINTENANCE_EXECUTOR)
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        List<CatalogSort> warm;
+        synchronized (entries) {
+            warm = new ArrayList<>(entries.keySet());
+        }
+        for (CatalogSort sort : warm) {
+            try {
+                // get() is a no-op when a request already built this version
+                get(sort);
+            } catch (Exception e) {
+                logger.warn("Catalog response rebuild ({}) failed: {}", sort, e.getMessage());
+            }
+        }
+    }
+
+    // Versions are content fingerprints, not counters: when a request and the rebuild race,
+    // keep whichever entry matches the live snapshot.
+    private Entry install(CatalogSort sort, Entry built) {
+        long live = catalogSnapshot.current().getVersion();
+        synchronized (entries) {
+            Entry existing = entries.get(sort);
+            if (existing != null && existing.getVersion() == live && built.getVersion() != live) {
+                return existing;
+            }
+            entries.put(sort, built);
+            return built;
+        }
+    }
+
+    static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private Entry build(CatalogSnapshot snapshot, CatalogSort sort) {
+        List<ServicePost> posts = snapshot.getPosts();
+        if (sort != CatalogSort.PLAN) {
+            posts = new ArrayList<>(posts);
+            posts.sort(sort.order());
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(posts);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize catalog", e);
+        }
+        return new Entry(snapshot.getVersion(), json, gzip(json));
+    }
+}
@@ -0,0 +1,112 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.model.ServicePost;
+import com.travelcommerce.model.Status;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable, pre-sorted view of the ACTIVE catalog.
+ * Patching returns a new snapshot; existing readers keep the one they already hold.
+ * The ServicePost instances are shared between snapshots and must be treated as read-only.
+ *
+ * The version is a fingerprint of the contents (ids, updatedAt and rating counters in catalog
+ * order), so the same catalog has the same version on every node and after every reload.
+ */
+public final class CatalogSnapshot {
+
+    // Same order as the public catalog: plan priority (Premium first), then id.
+    static final Comparator<ServicePost> CATALOG_ORDER = Comparator
+            .comparingInt((ServicePost p) -> ServicePost.planPriorityOf(p.getPlanName()))
+            .thenComparing(ServicePost::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final long version;
+    private final List<ServicePost> posts;
+    private final Map<String, ServicePost> byId;
+
+    private CatalogSnapshot(List<ServicePost> sortedPosts) {
+        this.version = fingerprint(sortedPosts);
+        this.posts = Collections.unmodifiableList(sortedPosts);
+        Map<String, ServicePost> index = new HashMap<>(sortedPosts.size() * 2);
+        for (ServicePost p : sortedPosts) {
+            index.put(p.getId(), p);
+        }
+        this.byId = Collections.unmodifiableMap(index);
+    }
+
+    /** Builds a snapshot from any list of posts; non-ACTIVE posts are dropped. */
+    public static CatalogSnapshot of(List<ServicePost> posts) {
+        List<ServicePost> active = new ArrayList<>(posts.size());
+        for (ServicePost p : posts) {
+            if (p != null && p.getId() != null && p.getStatus() == Status.ACTIVE) {
+                active.add(p);
+            }
+        }
+        active.sort(CATALOG_ORDER);
+        return new CatalogSnapshot(active);
+    }
+
+    // 64-bit FNV-1a style mix of what a catalog reader can observe changing. Every post write
+    // sets updatedAt; the counters are mixed in too since they are $inc-maintained.
+    static long fingerprint(List<ServicePost> sortedPosts) {
+        long h = 0xcbf29ce484222325L;
+        for (ServicePost p : sortedPosts) {
+            h = mix(h, p.getId().hashCode());
+            h = mix(h, p.getUpdatedAt() != null ? p.getUpdatedAt().getTime() : 0L);
+            h = mix(h, p.getRatingSum());
+            h = mix(h, p.getRatingCount());
+            h = mix(h, Objects.hashCode(p.getPlanName()));
+        }
+        return h;
+    }
+
+    private static long mix(long h, long value) {
+        return (h ^ value) * 0x100000001b3L;
+    }
+
+    public long getVersion() { return version; }
+
+    public List<ServicePost> getPosts() { return posts; }
+
+    public int size() { return posts.size(); }
+
+    public ServicePost find(String id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    /**
+     * @return a new snapshot with {@code post} inserted/replaced (if ACTIVE) or removed
+     *         (otherwise), or {@code this} when the post was neither present nor ACTIVE.
+     */
+    CatalogSnapshot with(ServicePost post) {
+        boolean present = byId.containsKey(post.getId());
+        boolean active = post.getStatus() == Status.ACTIVE;
+        if (!present && !active) return this;
+
+        List<ServicePost> next = new ArrayList<>(posts.size() + 1);
+        for (ServicePost p : posts) {
+            if (!p.getId().equals(post.getId())) next.add(p);
+        }
+        if (active) {
+            int idx = Collections.binarySearch(next, post, CATALOG_ORDER);
+            next.add(idx < 0 ? -idx - 1 : idx, post);
+        }
+        return new CatalogSnapshot(next);
+    }
+
+    /** @return a new snapshot without the post, or {@code this} if it wasn't present. */
+    CatalogSnapshot without(String id) {
+        if (!byId.containsKey(id)) return this;
+        List<ServicePost> next = new ArrayList<>(posts.size());
+        for (ServicePost p : posts) {
+            if (!p.getId().equals(id)) next.add(p);
+        }
+        return new CatalogSnapshot(next);
+    }
+}
@@ -0,0 +1,105 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.model.ServicePost;
+import com.travelcommerce.repository.ServiceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Holds the in-memory snapshot of ACTIVE listings used by the public catalog reads.
+ *
+ * Readers only do a volatile read and never lock. Writers (the service create/update/delete
+ * paths and admin approve/ban) patch the snapshot copy-on-write under a lock. The snapshot
+ * version is derived from its contents, so other components can use it as a cache key (and
+ * ETag) that agrees across nodes; each new version is announced with a {@link CatalogChangedEvent}.
+ *
+ * A periodic full reload catches writes made by other nodes; a reload that finds the same
+ * contents keeps the version, so caches and client ETags stay valid.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Object writeLock = new Object();
+    private volatile CatalogSnapshot current;
+
+    /** Current snapshot; loaded from MongoDB on first use. */
+    public CatalogSnapshot current() {
+        CatalogSnapshot snap = current;
+        if (snap != null) return snap;
+        synchronized (writeLock) {
+            if (current == null) {
+                reloadLocked();
+            }
+            return current;
+        }
+    }
+
+    public long version() {
+        return current().getVersion();
+    }
+
+    /** Rebuilds the whole snapshot from MongoDB. */
+    public CatalogSnapshot refresh() {
+        synchronized (writeLock) {
+            reloadLocked();
+            return current;
+        }
+    }
+
+    /** Applies a saved post: inserted/replaced when ACTIVE, dropped otherwise. */
+    public void upsert(ServicePost post) {
+        if (post == null || post.getId() == null) return;
+        synchronized (writeLock) {
+            if (current == null) return; // not loaded yet; first read will see the write
+            CatalogSnapshot next = current.with(post);
+            publishLocked(next);
+        }
+    }
+
+    public void remove(String id) {
+        if (id == null) return;
+        synchronized (writeLock) {
+            if (current == null) return;
+            CatalogSnapshot next = current.without(id);
+            publishLocked(next);
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.catalog.snapshot-refresh-ms:300000}",
+            fixedDelayString = "${app.catalog.snapshot-refresh-ms:300000}"
+    )
+    public void scheduledRefresh() {
+        if (current == null) return; // nobody has read the catalog yet
+        try {
+            refresh();
+        } catch (Exception e) {
+            logger.warn("Catalog snapshot refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private void reloadLocked() {
+        CatalogSnapshot next = CatalogSnapshot.of(serviceRepository.findByStatus("ACTIVE"));
+        publishLocked(next);
+        logger.debug("Catalog snapshot {} loaded with {} active post(s)", Long.toHexString(next.getVersion()), next.size());
+    }
+
+    private void publishLocked(CatalogSnapshot next) {
+        // Same contents (including a reload that found no changes): keep the version stable.
+        if (current != null && next.getVersion() == current.getVersion()) return;
+        current = next;
+        eventPublisher.publishEvent(new CatalogChangedEvent(next.getVersion()));
+    }
+}
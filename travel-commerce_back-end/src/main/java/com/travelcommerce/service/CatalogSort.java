@@ -0,0 +1,45 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.model.ServicePost;
+
+import java.util.Comparator;
+import java.util.Date;
+
+/** Sort modes offered by the public catalog (GET /api/services?sort=...). */
+public enum CatalogSort {
+
+    // Plan priority (Premium first), then id: the snapshot's own order.
+    PLAN(CatalogSnapshot.CATALOG_ORDER),
+
+    NEWEST(Comparator
+            .comparing(ServicePost::getCreatedAt, Comparator.nullsLast(Comparator.<Date>reverseOrder()))
+            .thenComparing(ServicePost::getId, Comparator.nullsLast(Comparator.naturalOrder()))),
+
+    RATING(Comparator
+            .comparing(ServicePost::getAverageRating, Comparator.reverseOrder())
+            .thenComparing(ServicePost::getReviewCount, Comparator.reverseOrder())
+            .thenComparing(CatalogSnapshot.CATALOG_ORDER));
+
+    private final Comparator<ServicePost> order;
+
+    CatalogSort(Comparator<ServicePost> order) {
+        this.order = order;
+    }
+
+    public Comparator<ServicePost> order() {
+        return order;
+    }
+
+    /**
+     * @return PLAN when {@code value} is blank.
+     * @throws IllegalArgumentException for an unknown sort mode.
+     */
+    public static CatalogSort fromParam(String value) {
+        if (value == null || value.isBlank()) return PLAN;
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort: " + value);
+        }
+    }
+}
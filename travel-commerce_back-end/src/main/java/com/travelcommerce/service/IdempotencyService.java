@@ -0,0 +1,170 @@
+package com.travelcommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.travelcommerce.exceptions.ConflictException;
+import com.travelcommerce.model.IdempotencyRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Idempotency-Key support for client-retried POSTs (idempotency_keys, kept for 24h).
+ *
+ * The first request with a key inserts an in-progress record - the unique _id makes the
+ * claim atomic - does the work, then stores its response. A retry with the same key and
+ * payload gets that response back without running again; a retry while the first is still
+ * running, or one that reuses the key for a different payload, is rejected.
+ *
+ * An in-progress claim holds a lease ({@code app.idempotency.lease-ms}, default 30s). If the
+ * request dies without completing, a retry after the lease runs out takes the claim over with
+ * one conditional findAndModify, so only one retry wins.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.idempotency.lease-ms:30000}")
+    private long leaseMs = 30000;
+
+    /**
+     * Claims {@code key} for this user and payload.
+     *
+     * @return a completed record to {@link #replay}, or else the caller's own claim, which
+     *         it must finish with {@link #complete} or {@link #release}
+     * @throws IllegalArgumentException for a blank or over-long key, or a key reused with another payload
+     * @throws ConflictException while another request holds an unexpired claim on the key
+     */
+    public IdempotencyRecord claim(String userId, String key, Object payload) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        String id = recordId(userId, key);
+        String requestHash = hash(payload);
+
+        for (int attempt = 1; attempt <= MAX_CLAIM_ATTEMPTS; attempt++) {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setId(id);
+            record.setRequestHash(requestHash);
+            record.setOwner(UUID.randomUUID().toString());
+            record.setLeaseExpiresAt(new Date(System.currentTimeMillis() + leaseMs));
+            try {
+                return mongoTemplate.insert(record);
+            } catch (DuplicateKeyException taken) {
+                // fall through to inspect the existing record
+            }
+
+            IdempotencyRecord existing = mongoTemplate.findById(id, IdempotencyRecord.class);
+            if (existing == null) {
+                continue; // expired or released since the insert failed
+            }
+            if (!requestHash.equals(existing.getRequestHash())) {
+                throw new IllegalArgumentException(HEADER + " was already used for a different request");
+            }
+            if (existing.isCompleted()) {
+                return existing;
+            }
+            if (existing.getLeaseExpiresAt() != null && existing.getLeaseExpiresAt().after(new Date())) {
+                throw new ConflictException("A request with this " + HEADER + " is still in progress");
+            }
+
+            // The previous holder's lease ran out without completing: take the claim over.
+            IdempotencyRecord taken = mongoTemplate.findAndModify(
+                    new Query(new Criteria().andOperator(
+                            Criteria.where("id").is(id),
+                            Criteria.where("completed").is(false),
+                            Criteria.where("owner").is(existing.getOwner()))),
+                    new Update().set("owner", record.getOwner()).set("leaseExpiresAt", record.getLeaseExpiresAt()),
+                    FindAndModifyOptions.options().returnNew(true),
+                    IdempotencyRecord.class);
+            if (taken != null) {
+                return taken;
+            }
+            // Someone else completed or took it over first; look again.
+        }
+        throw new ConflictException("A request with this " + HEADER + " is still in progress");
+    }
+
+    /**
+     * Records the response of the request holding {@code claim}. Server errors are not
+     * stored: the claim is dropped instead so a retry runs the request again.
+     */
+    public void complete(IdempotencyRecord claim, ResponseEntity<?> response) {
+        int status = response.getStatusCode().value();
+        String body;
+        try {
+            body = status < 500 ? objectMapper.writeValueAsString(response.getBody()) : null;
+        } catch (JsonProcessingException e) {
+            body = null;
+        }
+        if (body == null) {
+            release(claim);
+            return;
+        }
+        mongoTemplate.updateFirst(
+                owned(claim),
+                new Update().set("completed", true).set("responseStatus", status).set("responseBody", body),
+                IdempotencyRecord.class);
+    }
+
+    /** Drops the claim (the request failed before changing anything) so a retry can run it again. */
+    public void release(IdempotencyRecord claim) {
+        mongoTemplate.remove(owned(claim), IdempotencyRecord.class);
+    }
+
+    /** Rebuilds the original response from a completed record. */
+    public ResponseEntity<String> replay(IdempotencyRecord record) {
+        return ResponseEntity.status(record.getResponseStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(REPLAYED_HEADER, "true")
+                .body(record.getResponseBody());
+    }
+
+    // Only the current holder may finish a claim; a holder whose lease was taken over is ignored.
+    private static Query owned(IdempotencyRecord claim) {
+        return new Query(new Criteria().andOperator(
+                Criteria.where("id").is(claim.getId()),
+                Criteria.where("owner").is(claim.getOwner())));
+    }
+
+    private static String recordId(String userId, String key) {
+        return userId + ":" + key;
+    }
+
+    // Map keys are sorted so the same JSON sent with a different field order hashes the same.
+    private String hash(Object payload) {
+        try {
+            byte[] json = objectMapper.writer()
+                    .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValueAsBytes(payload);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash request", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.travelcommerce.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams query results straight from a MongoDB cursor into the HTTP response,
+ * one document at a time, so exports use constant memory whatever the collection size.
+ */
+@Service
+public class MongoExportService {
+
+    private static final int CURSOR_BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * @param ndjson true for newline-delimited JSON (one document per line),
+     *               false for a single JSON array
+     */
+    public <T> StreamingResponseBody export(Query query, Class<T> type, boolean ndjson) {
+        query.cursorBatchSize(CURSOR_BATCH_SIZE);
+        // The default writer flushes after every value; let the generator buffer instead.
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        return out -> {
+            try (Stream<T> rows = mongoTemplate.stream(query, type);
+                 JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                // Root values are separated by a space by default; NDJSON lines must start with the value.
+                if (ndjson) gen.setRootValueSeparator(null);
+                else gen.writeStartArray();
+                Iterator<T> it = rows.iterator();
+                while (it.hasNext()) {
+                    writer.writeValue(gen, it.next());
+                    if (ndjson) gen.writeRaw('\n');
+                }
+                if (!ndjson) gen.writeEndArray();
+            }
+        };
+    }
+}
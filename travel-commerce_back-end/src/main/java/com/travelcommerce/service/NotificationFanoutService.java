@@ -0,0 +1,213 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.config.TaskConfig;
+import com.travelcommerce.dto.BroadcastJobDTO;
+import com.travelcommerce.model.Notification;
+import com.travelcommerce.model.Role;
+import com.travelcommerce.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Writes one notification per user of some roles without holding the caller's request.
+ *
+ * Recipients are streamed from a MongoDB cursor (ids only) and their notifications are
+ * inserted {@value #BATCH_SIZE} at a time with a single insertMany each, so memory and round
+ * trips stay bounded however many users match. Admin broadcasts run as jobs on their own
+ * single-worker pool; their progress is kept in memory for {@value #JOB_RETENTION_MS} ms
+ * after they finish.
+ */
+@Service
+public class NotificationFanoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationFanoutService.class);
+
+    static final int BATCH_SIZE = 1000;
+    static final long JOB_RETENTION_MS = 60 * 60 * 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    @Qualifier(TaskConfig.BROADCAST_EXECUTOR)
+    private ExecutorService executor;
+
+    @Autowired
+    private NotificationStreamService stream;
+
+    @Autowired
+    private UnreadCountCache unreadCounts;
+
+    private final Map<String, BroadcastJob> jobs = new ConcurrentHashMap<>();
+
+    // State of one broadcast. The worker updates it while pollers copy it, so every access
+    // holds the job's lock and a poll never sees a half-applied transition.
+    private static final class BroadcastJob {
+        private final String jobId = UUID.randomUUID().toString();
+        private final String targetRole;
+        private final Date createdAt = new Date();
+        private String status = "QUEUED";
+        private long total;
+        private long sent;
+        private String error;
+        private Date finishedAt;
+
+        BroadcastJob(String targetRole) {
+            this.targetRole = targetRole;
+        }
+
+        synchronized void started(long total) {
+            this.status = "RUNNING";
+            this.total = total;
+        }
+
+        synchronized void progress(long sent) {
+            this.sent = sent;
+        }
+
+        synchronized void completed() {
+            this.status = "COMPLETED";
+            this.finishedAt = new Date();
+        }
+
+        synchronized void failed(String error) {
+            this.status = "FAILED";
+            this.error = error;
+            this.finishedAt = new Date();
+        }
+
+        synchronized long sent() {
+            return sent;
+        }
+
+        synchronized boolean finishedBefore(long cutoff) {
+            return finishedAt != null && finishedAt.getTime() < cutoff;
+        }
+
+        synchronized BroadcastJobDTO snapshot() {
+            BroadcastJobDTO dto = new BroadcastJobDTO();
+            dto.setJobId(jobId);
+            dto.setTargetRole(targetRole);
+            dto.setStatus(status);
+            dto.setTotal(total);
+            dto.setSent(sent);
+            dto.setError(error);
+            dto.setCreatedAt(createdAt);
+            dto.setFinishedAt(finishedAt);
+            return dto;
+        }
+    }
+
+    /** Roles reached by a broadcast target: ROLE_TRAVELLER, ROLE_PROVIDER, or (anything else) both. */
+    public static List<Role> broadcastRoles(String targetRole) {
+        if ("ROLE_TRAVELLER".equals(targetRole)) return List.of(Role.ROLE_TRAVELLER);
+        if ("ROLE_PROVIDER".equals(targetRole)) return List.of(Role.ROLE_PROVIDER);
+        return List.of(Role.ROLE_TRAVELLER, Role.ROLE_PROVIDER); // admins are never broadcast to
+    }
+
+    /**
+     * Queues an ADMIN_MESSAGE broadcast and returns its job straight away.
+     *
+     * @throws RejectedExecutionException when too many broadcasts are already queued
+     */
+    public BroadcastJobDTO startBroadcast(String adminId, String adminName, String message, String targetRole) {
+        pruneFinishedJobs();
+        BroadcastJob job = new BroadcastJob(targetRole);
+        jobs.put(job.jobId, job);
+
+        List<Role> roles = broadcastRoles(targetRole);
+        Runnable run = () -> {
+            try {
+                job.started(mongoTemplate.count(recipientsQuery(roles), User.class));
+                fanOut(roles,
+                        recipientId -> NotificationService.build(
+                                recipientId, adminId, adminName, "ADMIN_MESSAGE", message, null, null, null),
+                        job::progress);
+                job.completed();
+                logger.info("Broadcast {} to {} sent {} notification(s)", job.jobId, targetRole, job.sent());
+            } catch (Exception e) {
+                job.failed(e.getMessage());
+                logger.warn("Broadcast {} failed after {} notification(s): {}", job.jobId, job.sent(), e.getMessage());
+            }
+        };
+        try {
+            executor.execute(run);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.jobId);
+            throw e;
+        }
+        return job.snapshot();
+    }
+
+    /** Current progress of a broadcast, or null when it is unknown or was pruned. */
+    public BroadcastJobDTO getJob(String jobId) {
+        BroadcastJob job = jobs.get(jobId);
+        return job != null ? job.snapshot() : null;
+    }
+
+    /**
+     * Streams the ids of users with the given roles and inserts one notification each,
+     * BATCH_SIZE per insertMany. {@code progress} gets the running total after every batch.
+     *
+     * @return number of notifications written
+     */
+    public long fanOut(Collection<Role> roles, Function<String, Notification> build, LongConsumer progress) {
+        Query query = recipientsQuery(roles);
+        query.fields().include("id");
+        query.cursorBatchSize(BATCH_SIZE);
+
+        long sent = 0;
+        List<Notification> batch = new ArrayList<>(BATCH_SIZE);
+        try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+            for (User user : (Iterable<User>) users::iterator) {
+                batch.add(build.apply(user.getId()));
+                if (batch.size() == BATCH_SIZE) {
+                    sent += flush(batch);
+                    progress.accept(sent);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            sent += flush(batch);
+            progress.accept(sent);
+        }
+        return sent;
+    }
+
+    private int flush(List<Notification> batch) {
+        int size = batch.size();
+        Collection<Notification> saved = mongoTemplate.insert(new ArrayList<>(batch), Notification.class);
+        unreadCounts.added(saved);
+        stream.notificationsCreated(saved);
+        batch.clear();
+        return size;
+    }
+
+    private static Query recipientsQuery(Collection<Role> roles) {
+        return new Query(Criteria.where("role").in(roles));
+    }
+
+    private void pruneFinishedJobs() {
+        long cutoff = System.currentTimeMillis() - JOB_RETENTION_MS;
+        jobs.values().removeIf(j -> j.finishedBefore(cutoff));
+    }
+}
@@ -1,11 +1,15 @@
 package com.travelcommerce.service;
 
+import com.travelcommerce.config.TaskConfig;
 import com.travelcommerce.model.Notification;
 import com.travelcommerce.model.Role;
-import com.travelcommerce.model.User;
 import com.travelcommerce.repository.NotificationRepository;
-import com.travelcommerce.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
@@ -18,7 +22,16 @@ public class NotificationService {
     private NotificationRepository notificationRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private NotificationFanoutService fanout;
+
+    @Autowired
+    private NotificationStreamService stream;
+
+    @Autowired
+    private UnreadCountCache unreadCounts;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
 
     /**
      * Create and save a notification.
@@ -32,6 +45,37 @@ public class NotificationService {
             String relatedId,
             String serviceId,
             String serviceTitle
+    ) {
+        Notification saved = notificationRepository.save(
+                build(recipientId, senderId, senderName, type, message, relatedId, serviceId, serviceTitle));
+        unreadCounts.added(List.of(saved));
+        stream.notificationsCreated(List.of(saved));
+        return saved;
+    }
+
+    /**
+     * Save many notifications with one batched insert (e.g. after a bulk booking update).
+     */
+    public List<Notification> createNotifications(List<Notification> notifications) {
+        if (notifications.isEmpty()) return notifications;
+        List<Notification> saved = notificationRepository.insert(notifications);
+        unreadCounts.added(saved);
+        stream.notificationsCreated(saved);
+        return saved;
+    }
+
+    /**
+     * Build an unsaved, unread notification; pass a batch of these to createNotifications.
+     */
+    public static Notification build(
+            String recipientId,
+            String senderId,
+            String senderName,
+            String type,
+            String message,
+            String relatedId,
+            String serviceId,
+            String serviceTitle
     ) {
         Notification notification = new Notification();
         notification.setRecipientId(recipientId);
@@ -44,8 +88,7 @@ public class NotificationService {
         notification.setServiceTitle(serviceTitle);
         notification.setRead(false);
         notification.setCreatedAt(new Date());
-
-        return notificationRepository.save(notification);
+        return notification;
     }
 
     /**
@@ -56,42 +99,64 @@ public class NotificationService {
     }
 
     /**
-     * Get unread count for a user.
+     * Get unread count for a user (served from UnreadCountCache).
      */
     public long getUnreadCount(String userId) {
-        return notificationRepository.countByRecipientIdAndReadFalse(userId);
+        return unreadCounts.get(userId);
     }
 
     /**
-     * Mark a single notification as read.
+     * Mark a single notification as read. The update only matches while it is unread,
+     * so a repeated or concurrent call doesn't decrement the unread counter twice.
      */
     public Notification markAsRead(String notificationId, String userId) {
         Notification notification = notificationRepository.findById(notificationId).orElse(null);
         if (notification != null && notification.getRecipientId().equals(userId)) {
-            notification.setRead(true);
-            return notificationRepository.save(notification);
+            if (!notification.isRead()) {
+                long modified = mongoTemplate.updateFirst(
+                        new Query(new Criteria().andOperator(
+                                Criteria.where("id").is(notificationId),
+                                Criteria.where("recipientId").is(userId),
+                                Criteria.where("read").is(false))),
+                        new Update().set("read", true),
+                        Notification.class).getModifiedCount();
+                if (modified > 0) {
+                    unreadCounts.decrement(userId);
+                    stream.unreadCountChanged(userId);
+                }
+                notification.setRead(true);
+            }
         }
         return notification;
     }
 
     /**
-     * Mark all notifications as read for a user.
+     * Mark all notifications as read for a user (one updateMulti).
      */
     public void markAllAsRead(String userId) {
-        List<Notification> unread = notificationRepository.findByRecipientIdAndReadFalse(userId);
-        for (Notification n : unread) {
-            n.setRead(true);
-        }
-        notificationRepository.saveAll(unread);
+        mongoTemplate.updateMulti(
+                new Query(new Criteria().andOperator(
+                        Criteria.where("recipientId").is(userId),
+                        Criteria.where("read").is(false))),
+                new Update().set("read", true),
+                Notification.class);
+        unreadCounts.reset(userId);
+        stream.unreadCountChanged(userId);
     }
 
     /**
-     * Delete a notification.
+     * Delete a notification. One findAndRemove scoped to the recipient, so the unread
+     * counter moves only for the call that actually removed an unread notification.
      */
     public void deleteNotification(String notificationId, String userId) {
-        Notification notification = notificationRepository.findById(notificationId).orElse(null);
-        if (notification != null && notification.getRecipientId().equals(userId)) {
-            notificationRepository.deleteById(notificationId);
+        Notification removed = mongoTemplate.findAndRemove(
+                new Query(new Criteria().andOperator(
+                        Criteria.where("id").is(notificationId),
+                        Criteria.where("recipientId").is(userId))),
+                Notification.class);
+        if (removed != null && !removed.isRead()) {
+            unreadCounts.decrement(userId);
+            stream.unreadCountChanged(userId);
         }
     }
 
@@ -99,13 +164,16 @@ public class NotificationService {
      * Delete all notifications for a user.
      */
     public void deleteAllForUser(String userId) {
-        List<Notification> all = notificationRepository.findByRecipientIdOrderByCreatedAtDesc(userId);
-        notificationRepository.deleteAll(all);
+        notificationRepository.deleteByRecipientId(userId);
+        unreadCounts.reset(userId);
+        stream.unreadCountChanged(userId);
     }
 
     /**
-     * Notify all admin users about an event.
+     * Notify all admin users about an event. Runs on the notification pool and writes
+     * the notifications with batched inserts (see NotificationFanoutService).
      */
+    @Async(TaskConfig.NOTIFICATION_EXECUTOR)
     public void notifyAllAdmins(
             String senderId,
             String senderName,
@@ -115,19 +183,11 @@ public class NotificationService {
             String serviceId,
             String serviceTitle
     ) {
-        List<User> admins = userRepository.findByRole(Role.ROLE_ADMIN);
-        for (User admin : admins) {
-            createNotification(
-                admin.getId(),
-                senderId,
-                senderName,
-                type,
-                message,
-                relatedId,
-                serviceId,
-                serviceTitle
-            );
-        }
+        fanout.fanOut(
+            List.of(Role.ROLE_ADMIN),
+            adminId -> build(adminId, senderId, senderName, type, message, relatedId, serviceId, serviceTitle),
+            sent -> { }
+        );
     }
 
     /**
@@ -150,39 +210,4 @@ public class NotificationService {
             null
         );
     }
-
-    /**
-     * Admin broadcasts a notification to all users of a specific role, or all users.
-     */
-    public int adminBroadcast(
-            String adminId,
-            String adminName,
-            String message,
-            String targetRole  // "ALL", "ROLE_TRAVELLER", "ROLE_PROVIDER"
-    ) {
-        List<User> recipients;
-        if ("ROLE_TRAVELLER".equals(targetRole)) {
-            recipients = userRepository.findByRole(Role.ROLE_TRAVELLER);
-        } else if ("ROLE_PROVIDER".equals(targetRole)) {
-            recipients = userRepository.findByRole(Role.ROLE_PROVIDER);
-        } else {
-            // ALL — get travellers + providers (exclude admins from broadcast)
-            recipients = new java.util.ArrayList<>(userRepository.findByRole(Role.ROLE_TRAVELLER));
-            recipients.addAll(userRepository.findByRole(Role.ROLE_PROVIDER));
-        }
-
-        for (User user : recipients) {
-            createNotification(
-                user.getId(),
-                adminId,
-                adminName,
-                "ADMIN_MESSAGE",
-                message,
-                null,
-                null,
-                null
-            );
-        }
-        return recipients.size();
-    }
 }
@@ -0,0 +1,206 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.config.TaskConfig;
+import com.travelcommerce.model.Notification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Server-Sent Events push channel for notifications (GET /api/notifications/stream).
+ *
+ * Keeps a registry of the live emitters on this node, per user. New notifications are pushed
+ * as "notification" events whose id is the notification id, followed by an "unread-count"
+ * event; read/delete actions push "unread-count" alone, so other open tabs stay in step.
+ * A reconnecting client sends the last id it saw (Last-Event-ID) and gets the notifications
+ * created since then replayed; when more than {@value #MAX_REPLAY} were missed it gets a
+ * "resync" event instead, carrying the newest id, and refetches the list. A comment line every {@code app.notifications.heartbeat-ms}
+ * keeps proxies from closing idle streams and flushes out dead ones.
+ *
+ * Pushes only reach users connected to this node; with several nodes behind a load
+ * balancer, clients that miss one still converge on their next reconnect.
+ */
+@Service
+public class NotificationStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationStreamService.class);
+
+    static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000;  // client reconnects with Last-Event-ID
+    static final int MAX_STREAMS_PER_USER = 5;              // oldest is closed when exceeded
+    static final int MAX_REPLAY = 50;
+
+    @Autowired
+    private UnreadCountCache unreadCounts;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    @Qualifier(TaskConfig.NOTIFICATION_EXECUTOR)
+    private ExecutorService executor;
+
+    private final Map<String, Deque<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    /**
+     * Opens a stream for {@code userId}, replays what they missed since {@code lastEventId}
+     * (a notification id, may be null) and sends the current unread count.
+     */
+    public SseEmitter subscribe(String userId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Deque<SseEmitter> streams = emitters.computeIfAbsent(userId, k -> new ConcurrentLinkedDeque<>());
+        streams.add(emitter);
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(() -> remove(userId, emitter));
+        emitter.onError(e -> remove(userId, emitter));
+        while (streams.size() > MAX_STREAMS_PER_USER) {
+            SseEmitter oldest = streams.pollFirst();
+            if (oldest != null) oldest.complete();
+        }
+
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            List<Notification> missed = missedSince(userId, lastEventId);
+            if (missed.size() > MAX_REPLAY) {
+                send(userId, emitter, resyncEvent(newestId(userId, missed)));
+            } else {
+                for (Notification n : missed) {
+                    send(userId, emitter, notificationEvent(n));
+                }
+            }
+        }
+        send(userId, emitter, unreadCountEvent(unreadCount(userId)));
+        return emitter;
+    }
+
+    /** Pushes new notifications (and the recipients' unread counts) to connected recipients. */
+    public void notificationsCreated(Collection<Notification> notifications) {
+        if (emitters.isEmpty() || notifications.isEmpty()) return;
+        Map<String, List<Notification>> byRecipient = new LinkedHashMap<>();
+        for (Notification n : notifications) {
+            if (n.getRecipientId() != null && emitters.containsKey(n.getRecipientId())) {
+                byRecipient.computeIfAbsent(n.getRecipientId(), k -> new ArrayList<>()).add(n);
+            }
+        }
+        if (byRecipient.isEmpty()) return;
+        executor.execute(() -> byRecipient.forEach((userId, created) -> {
+            for (Notification n : created) {
+                broadcast(userId, () -> notificationEvent(n));
+            }
+            long count = unreadCount(userId);
+            broadcast(userId, () -> unreadCountEvent(count));
+        }));
+    }
+
+    /** Pushes the user's unread count after a read or delete. */
+    public void unreadCountChanged(String userId) {
+        if (!emitters.containsKey(userId)) return;
+        executor.execute(() -> {
+            long count = unreadCount(userId);
+            broadcast(userId, () -> unreadCountEvent(count));
+        });
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.notifications.heartbeat-ms:25000}",
+            fixedRateString = "${app.notifications.heartbeat-ms:25000}"
+    )
+    public void heartbeat() {
+        emitters.forEach((userId, streams) -> {
+            for (SseEmitter emitter : streams) {
+                send(userId, emitter, SseEmitter.event().comment("heartbeat"));
+            }
+        });
+    }
+
+    // Up to MAX_REPLAY + 1 notifications after lastEventId; more than MAX_REPLAY means the
+    // replay would be cut short.
+    private List<Notification> missedSince(String userId, String lastEventId) {
+        Query query = new Query(new Criteria().andOperator(
+                Criteria.where("recipientId").is(userId),
+                Criteria.where("id").gt(lastEventId)))
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(MAX_REPLAY + 1);
+        try {
+            return mongoTemplate.find(query, Notification.class);
+        } catch (RuntimeException e) {
+            logger.debug("Skipping replay after {}: {}", lastEventId, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private String newestId(String userId, List<Notification> missed) {
+        Query query = new Query(Criteria.where("recipientId").is(userId))
+                .with(Sort.by(Sort.Direction.DESC, "id"))
+                .limit(1);
+        query.fields().include("id");
+        try {
+            Notification newest = mongoTemplate.findOne(query, Notification.class);
+            if (newest != null) return newest.getId();
+        } catch (RuntimeException e) {
+            logger.debug("Newest notification lookup failed: {}", e.getMessage());
+        }
+        return missed.get(missed.size() - 1).getId();
+    }
+
+    private long unreadCount(String userId) {
+        return unreadCounts.get(userId);
+    }
+
+    // Event builders can't be reused once sent, so every emitter gets a fresh one.
+    private static SseEmitter.SseEventBuilder notificationEvent(Notification n) {
+        return SseEmitter.event().id(n.getId()).name("notification").data(n);
+    }
+
+    // Tells the client its replay was incomplete; the id moves its Last-Event-ID past the gap.
+    private static SseEmitter.SseEventBuilder resyncEvent(String newestId) {
+        return SseEmitter.event().id(newestId).name("resync").data(Map.of());
+    }
+
+    private static SseEmitter.SseEventBuilder unreadCountEvent(long count) {
+        return SseEmitter.event().name("unread-count").data(Map.of("count", count));
+    }
+
+    private void broadcast(String userId, Supplier<SseEmitter.SseEventBuilder> event) {
+        Deque<SseEmitter> streams = emitters.get(userId);
+        if (streams == null) return;
+        for (SseEmitter emitter : streams) {
+            send(userId, emitter, event.get());
+        }
+    }
+
+    private void send(String userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; drop the emitter instead of writing to it again.
+            remove(userId, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void remove(String userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (k, streams) -> {
+            streams.remove(emitter);
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.dto.ProviderAnalyticsDTO;
+import com.travelcommerce.model.Booking;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-provider booking analytics computed by one MongoDB aggregation ($facet over the
+ * provider's bookings, hot and archived) and cached until that provider's bookings change.
+ */
+@Service
+public class ProviderAnalyticsService {
+
+    private static final int TREND_MONTHS = 12;
+    private static final int TOP_SERVICES = 50;
+    // Safety net for writes that don't publish BookingChangedEvent (e.g. bulk cascades).
+    private static final long CACHE_TTL_MS = 10 * 60 * 1000;
+
+    private static final class Cached {
+        final ProviderAnalyticsDTO analytics;
+        final long generation;
+        final long computedAt;
+
+        Cached(ProviderAnalyticsDTO analytics, long generation) {
+            this.analytics = analytics;
+            this.generation = generation;
+            this.computedAt = System.currentTimeMillis();
+        }
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+    // Bumped by every booking change of a provider. An entry is served only while it carries
+    // the current generation, so a result computed while a change came in is never used.
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+    public ProviderAnalyticsDTO getAnalytics(String providerId) {
+        long generation = generations.getOrDefault(providerId, 0L);
+        Cached cached = cache.get(providerId);
+        if (cached != null && cached.generation == generation
+                && System.currentTimeMillis() - cached.computedAt < CACHE_TTL_MS) {
+            return cached.analytics;
+        }
+        ProviderAnalyticsDTO analytics = compute(providerId);
+        if (generations.getOrDefault(providerId, 0L) == generation) {
+            cache.put(providerId, new Cached(analytics, generation));
+        }
+        return analytics;
+    }
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.getProviderId() != null) {
+            generations.merge(event.getProviderId(), 1L, Long::sum);
+            cache.remove(event.getProviderId());
+        }
+    }
+
+    private ProviderAnalyticsDTO compute(String providerId) {
+        Date trendStart = Date.from(LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1).minusMonths(TREND_MONTHS - 1)
+                .atStartOfDay(ZoneOffset.UTC).toInstant());
+
+        TypedAggregation<Booking> aggregation = Aggregation.newAggregation(
+                Booking.class,
+                // Uses the (providerId, status, createdAt) inbox index.
+                Aggregation.match(Criteria.where("providerId").is(providerId)),
+                // Finished bookings moved out by BookingArchiveService still count.
+                UnionWithOperation.unionWith(BookingArchiveService.ARCHIVE_COLLECTION)
+                        .pipeline(Aggregation.match(Criteria.where("providerId").is(providerId))),
+                Aggregation.facet(
+                        Aggregation.group("status").count().as("count")
+                ).as("byStatus")
+                .and(
+                        Aggregation.group("serviceId")
+                                .first("serviceTitle").as("serviceTitle")
+                                .count().as("total")
+                                .sum(statusFlag("COMPLETED")).as("completed")
+                                .sum(statusFlag("CANCELLED")).as("cancelled"),
+                        Aggregation.sort(Sort.by(Sort.Order.desc("total"), Sort.Order.asc("_id"))),
+                        Aggregation.limit(TOP_SERVICES)
+                ).as("byService")
+                .and(
+                        Aggregation.match(Criteria.where("createdAt").gte(trendStart)),
+                        Aggregation.project()
+                                .and(DateOperators.DateToString.dateOf("createdAt")
+                                        .toString("%Y-%m")
+                                        .withTimezone(DateOperators.Timezone.valueOf("UTC")))
+                                .as("month")
+                                .and("status").as("status"),
+                        Aggregation.group("month")
+                                .count().as("total")
+                                .sum(statusFlag("COMPLETED")).as("completed"),
+                        Aggregation.sort(Sort.by(Sort.Order.asc("_id")))
+                ).as("monthly")
+        );
+
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        if (result == null) result = new Document();
+
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        long total = 0;
+        for (Document d : result.getList("byStatus", Document.class, List.of())) {
+            long count = ((Number) d.get("count")).longValue();
+            String status = d.get("_id") != null ? d.get("_id").toString().toUpperCase() : "UNKNOWN";
+            byStatus.merge(status, count, Long::sum);
+            total += count;
+        }
+
+        List<ProviderAnalyticsDTO.ServiceCount> byService = new ArrayList<>();
+        for (Document d : result.getList("byService", Document.class, List.of())) {
+            byService.add(new ProviderAnalyticsDTO.ServiceCount(
+                    d.get("_id") != null ? d.get("_id").toString() : null,
+                    d.getString("serviceTitle"),
+                    ((Number) d.get("total")).longValue(),
+                    ((Number) d.get("completed")).longValue(),
+                    ((Number) d.get("cancelled")).longValue()));
+        }
+
+        // Fill months without bookings so the trend always has TREND_MONTHS points.
+        Map<String, ProviderAnalyticsDTO.MonthCount> months = new LinkedHashMap<>();
+        LocalDate month = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1).minusMonths(TREND_MONTHS - 1);
+        for (int i = 0; i < TREND_MONTHS; i++, month = month.plusMonths(1)) {
+            String key = String.format("%04d-%02d", month.getYear(), month.getMonthValue());
+            months.put(key, new ProviderAnalyticsDTO.MonthCount(key, 0, 0));
+        }
+        for (Document d : result.getList("monthly", Document.class, List.of())) {
+            ProviderAnalyticsDTO.MonthCount m = months.get(String.valueOf(d.get("_id")));
+            if (m == null) continue;
+            m.setTotal(((Number) d.get("total")).longValue());
+            m.setCompleted(((Number) d.get("completed")).longValue());
+        }
+
+        return new ProviderAnalyticsDTO(total, byStatus, byService, new ArrayList<>(months.values()), new Date());
+    }
+
+    // 1 when the booking has the given status, else 0 (summed per group).
+    private static ConditionalOperators.Cond statusFlag(String status) {
+        return ConditionalOperators.when(ComparisonOperators.Eq.valueOf("status").equalToValue(status))
+                .then(1).otherwise(0);
+    }
+}
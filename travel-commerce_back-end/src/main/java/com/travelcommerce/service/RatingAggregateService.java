@@ -0,0 +1,224 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.config.TaskConfig;
+import com.travelcommerce.dto.RatingSummaryDTO;
+import com.travelcommerce.model.Review;
+import com.travelcommerce.model.ServicePost;
+import com.travelcommerce.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Maintains ServicePost.ratingSum / ratingCount.
+ *
+ * Review writes apply a single atomic $inc to the post (and forward to the star
+ * histogram, see RatingHistogramService), so reading a rating never touches
+ * the reviews collection. Only top-level reviews count; replies are stored with rating 0.
+ * A repair job recomputes the counters from the reviews collection to fix any drift.
+ * Its writes are conditional on the counters it read, so a review $inc that lands while a
+ * post is being repaired is never overwritten; that post is left for the next run.
+ */
+@Service
+public class RatingAggregateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingAggregateService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshot;
+
+    @Autowired
+    private RatingHistogramService histograms;
+
+    public static boolean isTopLevel(Review review) {
+        return review.getParentReviewId() == null || review.getParentReviewId().isEmpty();
+    }
+
+    public void reviewAdded(Review review) {
+        if (review == null || !isTopLevel(review)) return;
+        apply(review.getServiceId(), review.getRating(), 1);
+        histograms.reviewAdded(review);
+    }
+
+    public void ratingChanged(String serviceId, int oldRating, int newRating) {
+        if (oldRating == newRating) return;
+        apply(serviceId, newRating - oldRating, 0);
+        histograms.ratingChanged(serviceId, oldRating, newRating);
+    }
+
+    public void reviewRemoved(Review review) {
+        if (review == null || !isTopLevel(review)) return;
+        apply(review.getServiceId(), -review.getRating(), -1);
+        histograms.reviewRemoved(review);
+    }
+
+    /**
+     * Deletes a review with one findAndRemove and takes it out of the counters only when this
+     * call removed it, so two concurrent deletes (owner and admin, or a retry) count it once.
+     *
+     * @return the removed review, or null if it was already gone
+     */
+    public Review deleteReview(String reviewId) {
+        Review removed = mongoTemplate.findAndRemove(new Query(Criteria.where("id").is(reviewId)), Review.class);
+        reviewRemoved(removed);
+        return removed;
+    }
+
+    /**
+     * Sets a review's comment and (top-level only) rating in place. The update is filtered on
+     * the rating in {@code current}, and the counter delta is applied only when it matched;
+     * a review deleted meanwhile is not re-inserted.
+     *
+     * @return the review as it was before the edit, or null when it is gone or its rating
+     *         changed since {@code current} was read
+     */
+    public Review editReview(Review current, String comment, int newRating) {
+        boolean topLevel = isTopLevel(current);
+        Update update = new Update().set("comment", comment);
+        if (topLevel) update.set("rating", newRating);
+        Review before = mongoTemplate.findAndModify(
+                new Query(new Criteria().andOperator(
+                        Criteria.where("id").is(current.getId()),
+                        Criteria.where("rating").is(current.getRating()))),
+                update,
+                FindAndModifyOptions.options().returnNew(false),
+                Review.class
+        );
+        if (before != null && topLevel) {
+            ratingChanged(before.getServiceId(), before.getRating(), newRating);
+        }
+        return before;
+    }
+
+    private void apply(String serviceId, long sumDelta, long countDelta) {
+        if (serviceId == null) return;
+        Update update = new Update().inc("ratingSum", sumDelta).set("updatedAt", new Date());
+        if (countDelta != 0) {
+            update.inc("ratingCount", countDelta);
+        }
+        ServicePost updated = mongoTemplate.findAndModify(
+                new Query(Criteria.where("id").is(serviceId)),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                ServicePost.class
+        );
+        // Keep the public catalog snapshot in step with the new counters.
+        catalogSnapshot.upsert(updated);
+    }
+
+    /** Recomputes the counters (and star histograms) for the given services only. */
+    public void reconcile(Collection<String> serviceIds) {
+        if (serviceIds == null || serviceIds.isEmpty()) return;
+        serviceIds.forEach(this::repair);
+        histograms.reconcile(serviceIds);
+    }
+
+    /**
+     * Finds posts whose counters disagree with the reviews collection and repairs them one
+     * by one (see {@link #repair}). Runs once after startup (which also backfills existing
+     * data) and then on a fixed delay.
+     *
+     * @return number of posts repaired
+     */
+    public int reconcileAll() {
+        Map<String, RatingSummaryDTO> summaries = new HashMap<>();
+        try (Stream<RatingSummaryDTO> rows = reviewRepository.summarizeAllRatings()) {
+            rows.forEach(s -> summaries.put(s.getServiceId(), s));
+        }
+
+        Query all = new Query();
+        all.fields().include("ratingSum").include("ratingCount");
+        int repaired = 0;
+        try (Stream<ServicePost> posts = mongoTemplate.stream(all, ServicePost.class)) {
+            for (ServicePost post : (Iterable<ServicePost>) posts::iterator) {
+                RatingSummaryDTO s = summaries.get(post.getId());
+                long sum = s != null ? s.getRatingSum() : 0;
+                long count = s != null ? s.getReviewCount() : 0;
+                // The bulk summary is older than the post read, so a mismatch only marks a
+                // candidate; repair() re-reads both before writing.
+                if ((post.getRatingSum() != sum || post.getRatingCount() != count) && repair(post.getId())) {
+                    repaired++;
+                }
+            }
+        }
+        return repaired;
+    }
+
+    @Async(TaskConfig.MAINTENANCE_EXECUTOR)
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        runRepair();
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.ratings.repair-interval-ms:3600000}",
+            fixedDelayString = "${app.ratings.repair-interval-ms:3600000}"
+    )
+    public void scheduledRepair() {
+        runRepair();
+    }
+
+    private void runRepair() {
+        try {
+            int repaired = reconcileAll();
+            if (repaired > 0) {
+                logger.info("Rating repair fixed counters on {} service post(s)", repaired);
+            }
+        } catch (Exception e) {
+            logger.warn("Rating repair skipped: {}", e.getMessage());
+        }
+    }
+
+    // Reads the post's counters, then recomputes them from its reviews, then writes the result
+    // only while the post still holds what was read. On a miss (an $inc landed) nothing is written.
+    private boolean repair(String serviceId) {
+        Query byId = new Query(Criteria.where("id").is(serviceId));
+        byId.fields().include("ratingSum").include("ratingCount");
+        ServicePost current = mongoTemplate.findOne(byId, ServicePost.class);
+        if (current == null) return false;
+
+        List<RatingSummaryDTO> rows = reviewRepository.summarizeRatings(List.of(serviceId));
+        long sum = rows.isEmpty() ? 0 : rows.get(0).getRatingSum();
+        long count = rows.isEmpty() ? 0 : rows.get(0).getReviewCount();
+        if (current.getRatingSum() == sum && current.getRatingCount() == count) return false;
+
+        ServicePost updated = mongoTemplate.findAndModify(
+                new Query(new Criteria().andOperator(
+                        Criteria.where("id").is(serviceId),
+                        Criteria.where("ratingSum").is(current.getRatingSum()),
+                        Criteria.where("ratingCount").is(current.getRatingCount()))),
+                new Update().set("ratingSum", sum).set("ratingCount", count).set("updatedAt", new Date()),
+                FindAndModifyOptions.options().returnNew(true),
+                ServicePost.class
+        );
+        if (updated == null) {
+            logger.debug("Rating repair of {} skipped: counters changed while recomputing", serviceId);
+            return false;
+        }
+        catalogSnapshot.upsert(updated);
+        return true;
+    }
+}
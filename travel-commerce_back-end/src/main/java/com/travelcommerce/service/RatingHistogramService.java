@@ -0,0 +1,230 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.config.TaskConfig;
+import com.travelcommerce.model.RatingHistogram;
+import com.travelcommerce.model.Review;
+import com.travelcommerce.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the per-service star histogram (rating_histograms).
+ *
+ * Review writes apply one upserting $inc to the matching star counter(s), so reading a
+ * distribution never touches the reviews collection. Reads are served from a small
+ * write-through cache whose entries expire so writes from other nodes show up. A repair
+ * job recomputes every histogram from the reviews collection to fix any drift; like the
+ * post counters (RatingAggregateService) it only writes while the stored counts are still
+ * the ones it read, so it never replaces a concurrent $inc.
+ */
+@Service
+public class RatingHistogramService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingHistogramService.class);
+
+    private static final long CACHE_TTL_MS = 5 * 60 * 1000;
+    private static final int MAX_CACHED = 10_000;
+
+    private static final class Cached {
+        final RatingHistogram histogram;
+        final long loadedAt;
+
+        Cached(RatingHistogram histogram) {
+            this.histogram = histogram;
+            this.loadedAt = System.currentTimeMillis();
+        }
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+
+    /** Histogram for a service; all zeros when it has no reviews yet. */
+    public RatingHistogram get(String serviceId) {
+        Cached cached = cache.get(serviceId);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt < CACHE_TTL_MS) {
+            return cached.histogram;
+        }
+        RatingHistogram histogram = mongoTemplate.findById(serviceId, RatingHistogram.class);
+        if (histogram == null) histogram = new RatingHistogram(serviceId);
+        remember(histogram);
+        return histogram;
+    }
+
+    public void reviewAdded(Review review) {
+        if (review == null || !RatingAggregateService.isTopLevel(review)) return;
+        String field = RatingHistogram.fieldFor(review.getRating());
+        if (field == null) return;
+        apply(review.getServiceId(), new Update().inc(field, 1));
+    }
+
+    public void ratingChanged(String serviceId, int oldRating, int newRating) {
+        if (oldRating == newRating) return;
+        String oldField = RatingHistogram.fieldFor(oldRating);
+        String newField = RatingHistogram.fieldFor(newRating);
+        if (oldField == null && newField == null) return;
+        Update update = new Update();
+        if (oldField != null) update.inc(oldField, -1);
+        if (newField != null) update.inc(newField, 1);
+        apply(serviceId, update);
+    }
+
+    public void reviewRemoved(Review review) {
+        if (review == null || !RatingAggregateService.isTopLevel(review)) return;
+        String field = RatingHistogram.fieldFor(review.getRating());
+        if (field == null) return;
+        apply(review.getServiceId(), new Update().inc(field, -1));
+    }
+
+    /** Drops the histograms of deleted services. */
+    public long deleteFor(Collection<String> serviceIds) {
+        if (serviceIds == null || serviceIds.isEmpty()) return 0;
+        serviceIds.forEach(cache::remove);
+        return mongoTemplate.remove(new Query(Criteria.where("id").in(serviceIds)), RatingHistogram.class)
+                .getDeletedCount();
+    }
+
+    /** Recomputes the histograms of the given services only. */
+    public void reconcile(Collection<String> serviceIds) {
+        if (serviceIds == null || serviceIds.isEmpty()) return;
+        serviceIds.forEach(this::repair);
+    }
+
+    /**
+     * Finds histograms that disagree with the reviews collection (or are missing) and repairs
+     * them one by one (see {@link #repair}). Runs once after startup, which also backfills
+     * existing reviews, then on a fixed delay.
+     *
+     * @return number of histograms repaired
+     */
+    public int reconcileAll() {
+        Map<String, RatingHistogram> stored = new HashMap<>();
+        try (Stream<RatingHistogram> rows = mongoTemplate.stream(new Query(), RatingHistogram.class)) {
+            rows.forEach(h -> stored.put(h.getServiceId(), h));
+        }
+        int repaired = 0;
+        try (Stream<RatingHistogram> rows = reviewRepository.summarizeAllHistograms()) {
+            for (RatingHistogram actual : (Iterable<RatingHistogram>) rows::iterator) {
+                RatingHistogram current = stored.remove(actual.getServiceId());
+                if (!actual.sameCounts(current) && repair(actual.getServiceId())) {
+                    repaired++;
+                }
+            }
+        }
+        // Whatever is left has no top-level reviews any more.
+        for (RatingHistogram orphan : stored.values()) {
+            if (orphan.getTotal() != 0 && repair(orphan.getServiceId())) {
+                repaired++;
+            }
+        }
+        return repaired;
+    }
+
+    @Async(TaskConfig.MAINTENANCE_EXECUTOR)
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        runRepair();
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.ratings.repair-interval-ms:3600000}",
+            fixedDelayString = "${app.ratings.repair-interval-ms:3600000}"
+    )
+    public void scheduledRepair() {
+        runRepair();
+    }
+
+    private void runRepair() {
+        try {
+            int repaired = reconcileAll();
+            if (repaired > 0) {
+                logger.info("Histogram repair fixed {} service histogram(s)", repaired);
+            }
+        } catch (Exception e) {
+            logger.warn("Histogram repair skipped: {}", e.getMessage());
+        }
+    }
+
+    private void apply(String serviceId, Update update) {
+        if (serviceId == null) return;
+        RatingHistogram updated = mongoTemplate.findAndModify(
+                new Query(Criteria.where("id").is(serviceId)),
+                update.set("updatedAt", new Date()),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                RatingHistogram.class
+        );
+        if (updated != null) remember(updated);
+    }
+
+    // Reads the stored counts, recomputes them from the reviews, then writes the result only
+    // while the stored counts are unchanged. A missing histogram is inserted; if an $inc upsert
+    // creates it first the insert fails and the service is left for the next run.
+    private boolean repair(String serviceId) {
+        RatingHistogram current = mongoTemplate.findById(serviceId, RatingHistogram.class);
+        List<RatingHistogram> rows = reviewRepository.summarizeHistograms(List.of(serviceId));
+        RatingHistogram actual = rows.isEmpty() ? new RatingHistogram(serviceId) : rows.get(0);
+        if (current == null ? actual.getTotal() == 0 : actual.sameCounts(current)) return false;
+
+        actual.setUpdatedAt(new Date());
+        boolean written;
+        if (current == null) {
+            try {
+                mongoTemplate.insert(actual);
+                written = true;
+            } catch (DuplicateKeyException e) {
+                written = false;
+            }
+        } else {
+            Update update = new Update().set("updatedAt", actual.getUpdatedAt());
+            Criteria unchanged = Criteria.where("id").is(serviceId);
+            for (int star = 1; star <= 5; star++) {
+                String field = RatingHistogram.fieldFor(star);
+                long read = current.count(star);
+                // $inc upserts only create the fields they touch, so a zero may be a missing field.
+                if (read == 0) unchanged.and(field).in(0L, null);
+                else unchanged.and(field).is(read);
+                update.set(field, actual.count(star));
+            }
+            written = mongoTemplate.updateFirst(new Query(unchanged), update, RatingHistogram.class)
+                    .getMatchedCount() > 0;
+        }
+        if (!written) {
+            cache.remove(serviceId);
+            logger.debug("Histogram repair of {} skipped: counts changed while recomputing", serviceId);
+            return false;
+        }
+        remember(actual);
+        return true;
+    }
+
+    private void remember(RatingHistogram histogram) {
+        if (cache.size() >= MAX_CACHED) {
+            cache.clear(); // crude bound; entries are cheap to reload
+        }
+        cache.put(histogram.getServiceId(), new Cached(histogram));
+    }
+}
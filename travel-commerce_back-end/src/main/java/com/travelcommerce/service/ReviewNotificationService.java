@@ -0,0 +1,95 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.config.TaskConfig;
+import com.travelcommerce.model.Review;
+import com.travelcommerce.model.ServicePost;
+import com.travelcommerce.repository.ServiceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+/**
+ * Sends the notifications triggered by review writes off the request thread.
+ *
+ * The controller saves the review and responds; the service lookup and the notification
+ * insert run on the bounded notification pool and are retried with a short backoff.
+ */
+@Service
+public class ReviewNotificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewNotificationService.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BACKOFF_MS = 250;
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    // Tells the provider about a new review on their service.
+    @Async(TaskConfig.NOTIFICATION_EXECUTOR)
+    public void reviewCreated(Review review, String authorName) {
+        withRetry("REVIEW_NEW " + review.getId(), () -> {
+            ServicePost service = serviceRepository.findById(review.getServiceId()).orElse(null);
+            if (service == null || service.getProviderId() == null) return;
+            notificationService.createNotification(
+                service.getProviderId(),
+                review.getTravellerId(),
+                authorName,
+                "REVIEW_NEW",
+                authorName + " left a " + review.getRating() + "-star review on \"" + service.getTitle() + "\"",
+                review.getId(),
+                service.getId(),
+                service.getTitle()
+            );
+        });
+    }
+
+    // Tells the parent review's author about a reply (not sent for replies to oneself).
+    @Async(TaskConfig.NOTIFICATION_EXECUTOR)
+    public void replyCreated(Review reply, Review parentReview, String authorName) {
+        if (parentReview.getTravellerId() == null || parentReview.getTravellerId().equals(reply.getTravellerId())) {
+            return;
+        }
+        withRetry("REVIEW_REPLY " + reply.getId(), () -> {
+            ServicePost service = serviceRepository.findById(parentReview.getServiceId()).orElse(null);
+            String serviceTitle = service != null ? service.getTitle() : "a service";
+            notificationService.createNotification(
+                parentReview.getTravellerId(),
+                reply.getTravellerId(),
+                authorName,
+                "REVIEW_REPLY",
+                authorName + " replied to your review on \"" + serviceTitle + "\"",
+                reply.getId(),
+                parentReview.getServiceId(),
+                serviceTitle
+            );
+        });
+    }
+
+    // Only ever runs on a pool thread (the pool drops rather than running on the caller), so
+    // the backoff sleeps never hold a request thread.
+    private void withRetry(String what, Runnable task) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                task.run();
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    logger.warn("Giving up on notification {} after {} attempts: {}", what, attempt, e.getMessage());
+                    return;
+                }
+                try {
+                    Thread.sleep(BACKOFF_MS * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
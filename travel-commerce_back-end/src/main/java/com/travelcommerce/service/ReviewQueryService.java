@@ -0,0 +1,296 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.dto.CursorPageDTO;
+import com.travelcommerce.dto.KeysetCursor;
+import com.travelcommerce.dto.ReviewFilterDTO;
+import com.travelcommerce.model.Review;
+import com.travelcommerce.repository.KeysetCriteria;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Paged reads over review threads. Top-level reviews are keyset-paginated per service and
+ * carry a bounded preview of their replies; the rest of a thread loads through
+ * {@link #findReplies}. Each read touches one page plus one aggregation for the previews.
+ */
+@Service
+public class ReviewQueryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 10;
+    public static final int MAX_PAGE_SIZE = 50;
+    public static final int DEFAULT_REPLY_PREVIEW = 3;
+    public static final int MAX_REPLY_PREVIEW = 10;
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewQueryService.class);
+
+    private static final Sort ADMIN_FEED_ORDER = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Cleared the first time the server rejects $topN (MongoDB before 5.2).
+    private volatile boolean topNSupported = true;
+
+    /**
+     * One page of top-level reviews for a service.
+     *
+     * @param sort "newest" (createdAt desc, default) or "rating" (rating desc); ties by id desc
+     * @param replyPreview how many of the oldest replies to embed per review (0-10)
+     * @throws IllegalArgumentException for an unknown sort or a malformed cursor
+     */
+    public CursorPageDTO<Review> findServiceReviews(String serviceId, String sort, String cursor,
+                                                    int limit, int replyPreview) {
+        boolean byRating = parseByRating(sort);
+        String field = byRating ? "rating" : "createdAt";
+        int pageSize = clamp(limit, DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(Criteria.where("serviceId").is(serviceId));
+        filters.add(topLevel());
+        if (after != null) {
+            Object value;
+            try {
+                value = byRating ? (Object) after.keyAsInt() : new Date(after.keyAsLong());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            filters.add(KeysetCriteria.after(field, value, after.getId(), Sort.Direction.DESC));
+        }
+
+        Query query = new Query(new Criteria().andOperator(filters.toArray(new Criteria[0])))
+                .with(Sort.by(Sort.Order.desc(field), Sort.Order.desc("id")))
+                .limit(pageSize + 1);
+        List<Review> rows = mongoTemplate.find(query, Review.class);
+        boolean hasMore = rows.size() > pageSize;
+        List<Review> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+
+        attachReplyPreviews(items, Math.max(0, Math.min(replyPreview, MAX_REPLY_PREVIEW)));
+
+        String nextCursor = null;
+        if (hasMore) {
+            Review last = items.get(items.size() - 1);
+            String key = byRating
+                    ? String.valueOf(last.getRating())
+                    : String.valueOf(last.getCreatedAt() != null ? last.getCreatedAt().getTime() : 0L);
+            nextCursor = new KeysetCursor(key, last.getId()).encode();
+        }
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Replies of one review, oldest first.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPageDTO<Review> findReplies(String parentReviewId, String cursor, int limit) {
+        int pageSize = clamp(limit, 20, MAX_PAGE_SIZE);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(Criteria.where("parentReviewId").is(parentReviewId));
+        if (after != null) {
+            Date createdAt;
+            try {
+                createdAt = new Date(after.keyAsLong());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            filters.add(KeysetCriteria.after("createdAt", createdAt, after.getId(), Sort.Direction.ASC));
+        }
+
+        Query query = new Query(new Criteria().andOperator(filters.toArray(new Criteria[0])))
+                .with(Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("id")))
+                .limit(pageSize + 1);
+        List<Review> rows = mongoTemplate.find(query, Review.class);
+        boolean hasMore = rows.size() > pageSize;
+        List<Review> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Review last = items.get(items.size() - 1);
+            long stamp = last.getCreatedAt() != null ? last.getCreatedAt().getTime() : 0L;
+            nextCursor = new KeysetCursor(String.valueOf(stamp), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Admin moderation feed over all reviews and replies, newest first (createdAt, then id).
+     *
+     * @throws IllegalArgumentException for an unknown type or a malformed cursor
+     */
+    public CursorPageDTO<Review> findAdminFeed(ReviewFilterDTO filter, String cursor, int limit) {
+        int pageSize = clamp(limit, 20, MAX_PAGE_SIZE);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        List<Criteria> filters = adminFilters(filter);
+        if (after != null) {
+            Date createdAt;
+            try {
+                createdAt = new Date(after.keyAsLong());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            filters.add(KeysetCriteria.after("createdAt", createdAt, after.getId(), Sort.Direction.DESC));
+        }
+
+        Query query = matchAll(filters).with(ADMIN_FEED_ORDER).limit(pageSize + 1);
+        List<Review> rows = mongoTemplate.find(query, Review.class);
+        boolean hasMore = rows.size() > pageSize;
+        List<Review> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Review last = items.get(items.size() - 1);
+            long stamp = last.getCreatedAt() != null ? last.getCreatedAt().getTime() : 0L;
+            nextCursor = new KeysetCursor(String.valueOf(stamp), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Same filters and order as {@link #findAdminFeed}, without paging, for streaming exports.
+     *
+     * @throws IllegalArgumentException for an unknown type
+     */
+    public Query adminExportQuery(ReviewFilterDTO filter) {
+        return matchAll(adminFilters(filter)).with(ADMIN_FEED_ORDER);
+    }
+
+    private static List<Criteria> adminFilters(ReviewFilterDTO filter) {
+        List<Criteria> filters = new ArrayList<>();
+        if (filter.getRating() != null) {
+            filters.add(Criteria.where("rating").is(filter.getRating()));
+        }
+        if (filter.getServiceId() != null && !filter.getServiceId().isBlank()) {
+            filters.add(Criteria.where("serviceId").is(filter.getServiceId()));
+        }
+        if (filter.getTravellerId() != null && !filter.getTravellerId().isBlank()) {
+            filters.add(Criteria.where("travellerId").is(filter.getTravellerId()));
+        }
+        if (filter.getFrom() != null || filter.getTo() != null) {
+            Criteria created = Criteria.where("createdAt");
+            if (filter.getFrom() != null) created.gte(startOfDay(filter.getFrom()));
+            if (filter.getTo() != null) created.lt(startOfDay(filter.getTo().plusDays(1)));
+            filters.add(created);
+        }
+        String type = filter.getType();
+        if ("top".equalsIgnoreCase(type)) {
+            filters.add(topLevel());
+        } else if ("reply".equalsIgnoreCase(type)) {
+            filters.add(Criteria.where("parentReviewId").nin(Arrays.asList(null, "")));
+        } else if (type != null && !type.isBlank()) {
+            throw new IllegalArgumentException("Unknown type: " + type);
+        }
+        return filters;
+    }
+
+    private static Query matchAll(List<Criteria> filters) {
+        if (filters.isEmpty()) return new Query();
+        return new Query(new Criteria().andOperator(filters.toArray(new Criteria[0])));
+    }
+
+    // Date filters are calendar days in UTC, the same on every server.
+    private static Date startOfDay(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+    // Sets replyCount and the first `preview` replies on each review with one aggregation.
+    // $topN keeps at most `preview` replies per review inside the group stage, so a long
+    // thread costs a counter, not its whole reply list. $topN needs MongoDB 5.2+; on older
+    // servers the group only counts and each review's preview is one limited find.
+    private void attachReplyPreviews(List<Review> reviews, int preview) {
+        if (reviews.isEmpty()) return;
+        List<String> ids = new ArrayList<>(reviews.size());
+        for (Review r : reviews) {
+            r.setReplies(new ArrayList<>());
+            ids.add(r.getId());
+        }
+
+        boolean withTopN = preview > 0 && topNSupported;
+        Map<String, Document> byParent;
+        try {
+            byParent = groupReplies(ids, withTopN ? preview : 0);
+        } catch (DataAccessException e) {
+            if (!withTopN || !String.valueOf(e.getMessage()).contains("$topN")) throw e;
+            topNSupported = false;
+            logger.warn("MongoDB rejected $topN (needs 5.2+); loading reply previews per review instead");
+            withTopN = false;
+            byParent = groupReplies(ids, 0);
+        }
+
+        for (Review r : reviews) {
+            Document doc = byParent.get(r.getId());
+            if (doc == null) continue;
+            r.setReplyCount(((Number) doc.get("count")).longValue());
+            if (preview == 0) continue;
+            if (withTopN) {
+                for (Document reply : doc.getList("replies", Document.class, List.of())) {
+                    r.getReplies().add(mongoTemplate.getConverter().read(Review.class, reply));
+                }
+            } else {
+                Query oldest = new Query(Criteria.where("parentReviewId").is(r.getId()))
+                        .with(Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("id")))
+                        .limit(preview);
+                r.getReplies().addAll(mongoTemplate.find(oldest, Review.class));
+            }
+        }
+    }
+
+    // Reply count per parent, plus the `preview` oldest replies when preview > 0.
+    private Map<String, Document> groupReplies(List<String> parentIds, int preview) {
+        GroupOperation group = Aggregation.group("parentReviewId").count().as("count");
+        if (preview > 0) {
+            AggregationExpression oldestReplies = context -> new Document("$topN", new Document("n", preview)
+                    .append("sortBy", new Document("createdAt", 1).append("_id", 1))
+                    .append("output", "$$ROOT"));
+            group = group.and("replies", oldestReplies);
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("parentReviewId").in(parentIds)),
+                group
+        );
+        Map<String, Document> byParent = new HashMap<>();
+        for (Document doc : mongoTemplate.aggregate(aggregation, Review.class, Document.class).getMappedResults()) {
+            byParent.put(String.valueOf(doc.get("_id")), doc);
+        }
+        return byParent;
+    }
+
+    // Top-level reviews are stored with parentReviewId null or "" depending on the client.
+    private static Criteria topLevel() {
+        return Criteria.where("parentReviewId").in(Arrays.asList(null, ""));
+    }
+
+    private static boolean parseByRating(String sort) {
+        if (sort == null || sort.isBlank() || "newest".equalsIgnoreCase(sort)) return false;
+        if ("rating".equalsIgnoreCase(sort)) return true;
+        throw new IllegalArgumentException("Unknown sort: " + sort);
+    }
+
+    private static int clamp(int limit, int defaultSize, int max) {
+        if (limit <= 0) return defaultSize;
+        return Math.min(limit, max);
+    }
+}
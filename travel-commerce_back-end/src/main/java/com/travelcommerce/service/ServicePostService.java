@@ -1,11 +1,38 @@
 package com.travelcommerce.service;
 
+import com.travelcommerce.dto.CursorPageDTO;
+import com.travelcommerce.config.TaskConfig;
+import com.travelcommerce.dto.FacetedPageDTO;
+import com.travelcommerce.dto.KeysetCursor;
+import com.travelcommerce.dto.ServiceCardDTO;
+import com.travelcommerce.dto.ServiceFilterDTO;
 import com.travelcommerce.model.ServicePost;
+import com.travelcommerce.model.Status;
+import com.travelcommerce.repository.KeysetCriteria;
 import com.travelcommerce.repository.ServiceRepository;
-import com.travelcommerce.repository.ReviewRepository;
-import com.travelcommerce.model.Review;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.FacetOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -13,16 +40,34 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @Service
 public class ServicePostService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ServicePostService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SCORE_FIELD = "searchScore"; // $meta textScore in searchText
+    private static final List<String> RATING_COUNTERS = List.of("ratingSum", "ratingCount");
+
     @Autowired
     private ServiceRepository repo;
 
     @Autowired
-    private ReviewRepository reviewRepository;
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshot;
+
+    @Autowired
+    private CascadeDeleteService cascadeDeletes;
 
     @Value("${app.upload-dir:#{null}}")
     private String configuredUploadDir;
@@ -30,61 +75,85 @@ public class ServicePostService {
     // 🟢 TEAMMATES' ORIGINAL CODE (DO NOT TOUCH - KEEPS APP WORKING)
     // ==================================================================================
 
+    // averageRating / reviewCount are derived on the model from the persisted rating
+    // counters (see RatingAggregateService), so no per-post enrichment query is needed.
     public List<ServicePost> findAll() {
-        List<ServicePost> posts = repo.findAll();
-        attachRatings(posts);
-        return posts;
+        return repo.findAll();
     }
 
     public List<ServicePost> findByProviderId(String providerId) {
-        List<ServicePost> posts = repo.findByProviderId(providerId);
-        attachRatings(posts);
-        return posts;
+        return repo.findByProviderId(providerId);
     }
 
     public ServicePost findById(String id) {
-        ServicePost post = repo.findById(id).orElse(null);
-        if (post != null) {
-            attachRating(post);
-        }
-        return post;
+        return repo.findById(id).orElse(null);
     }
 
     public ServicePost create(ServicePost p) {
-        return repo.save(p);
+        p.setRatingSum(0); // counters start empty, whatever the client sent
+        p.setRatingCount(0);
+        p.setUpdatedAt(new Date());
+        ServicePost saved = repo.save(p);
+        catalogSnapshot.upsert(saved);
+        return saved;
     }
 
+    /**
+     * Writes every field of {@code p} except the rating counters, which review writes move
+     * with $inc (RatingAggregateService); a full-document save would overwrite an $inc that
+     * landed after {@code p} was read. Null fields are unset.
+     *
+     * @return the stored post (with its current counters), or null if it no longer exists
+     */
     public ServicePost update(ServicePost p) {
-        return repo.save(p);
+        p.setUpdatedAt(new Date());
+        Document fields = new Document();
+        mongoTemplate.getConverter().write(p, fields);
+        Update update = new Update();
+        PropertyHandler<MongoPersistentProperty> setOrUnset = prop -> {
+            String field = prop.getFieldName();
+            if (prop.isIdProperty() || RATING_COUNTERS.contains(field)) return;
+            if (fields.containsKey(field)) update.set(field, fields.get(field));
+            else update.unset(field);
+        };
+        mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(ServicePost.class).doWithProperties(setOrUnset);
+        ServicePost saved = mongoTemplate.findAndModify(
+                new Query(Criteria.where("id").is(p.getId())), update,
+                FindAndModifyOptions.options().returnNew(true), ServicePost.class);
+        if (saved != null) catalogSnapshot.upsert(saved);
+        return saved;
     }
 
+    /** Moves a post to {@code status} without touching its other fields; null if it doesn't exist. */
+    public ServicePost setStatus(String id, Status status) {
+        ServicePost saved = mongoTemplate.findAndModify(
+                new Query(Criteria.where("id").is(id)),
+                new Update().set("status", status).set("updatedAt", new Date()),
+                FindAndModifyOptions.options().returnNew(true), ServicePost.class);
+        if (saved != null) catalogSnapshot.upsert(saved);
+        return saved;
+    }
+
+    // Dependent reviews, bookings, wishlist rows and notifications are removed in the
+    // background; notifications created after this call (e.g. SERVICE_DELETED) are kept.
     public void delete(String id) {
+        Date deletedAt = new Date();
         repo.deleteById(id);
+        catalogSnapshot.remove(id);
+        cascadeDeletes.serviceDeleted(id, deletedAt);
     }
 
     // Create with images
     public ServicePost createWithImages(ServicePost post, List<MultipartFile> files) {
         List<String> savedUrls = uploadFiles(files);
         post.setImages(savedUrls);
-        return repo.save(post);
-    }
-
-    private void attachRatings(List<ServicePost> posts) {
-        if (posts == null) return;
-        posts.forEach(this::attachRating);
-    }
-
-    private void attachRating(ServicePost post) {
-        if (post == null || post.getId() == null) return;
-        List<Review> reviews = reviewRepository.findByServiceId(post.getId());
-        if (reviews == null || reviews.isEmpty()) {
-            post.setAverageRating(0.0);
-            post.setReviewCount(0L);
-            return;
-        }
-        double avg = reviews.stream().mapToInt(Review::getRating).average().orElse(0.0);
-        post.setAverageRating(avg);
-        post.setReviewCount((long) reviews.size());
+        post.setRatingSum(0);
+        post.setRatingCount(0);
+        post.setUpdatedAt(new Date());
+        ServicePost saved = repo.save(post);
+        catalogSnapshot.upsert(saved);
+        return saved;
     }
 
     // Store files to /uploads and return relative URLs
@@ -134,19 +203,329 @@ public class ServicePostService {
     // 🔴 MY ADMIN / TRAVELLER EXTENSIONS
     // ==================================================================================
 
-    public List<ServicePost> searchPosts(String keyword, String category) {
-        if (keyword != null && !keyword.isEmpty()) {
-            return repo.findByTitleContainingIgnoreCaseOrCategoryContainingIgnoreCase(keyword, keyword);
-        } else if (category != null && !category.isEmpty()) {
-            return repo.findByTitleContainingIgnoreCaseOrCategoryContainingIgnoreCase("", category);
-        } else {
-            return repo.findAll();
+    // 🟢 NEW: Get only Active posts for Travellers
+    // Served from the in-memory catalog snapshot (already sorted by plan priority).
+    public List<ServicePost> findActivePosts() {
+        return catalogSnapshot.current().getPosts();
+    }
+
+    // ==================================================================================
+    // KEYSET-PAGINATED CATALOG
+    // ==================================================================================
+
+    /**
+     * One catalog page ordered by plan priority (Premium first), ties broken by id.
+     * Seeks past the cursor on the (status, planPriority, _id) index, so cost depends
+     * on the page size rather than the catalog size.
+     *
+     * @param includeAll true for the admin view (every status), false for ACTIVE only
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPageDTO<ServicePost> findCatalogPage(boolean includeAll, String cursor, int limit) {
+        int pageSize = clampPageSize(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        Query query = catalogPageQuery(includeAll, after, pageSize);
+        List<ServicePost> rows = mongoTemplate.find(query, ServicePost.class);
+        boolean hasMore = rows.size() > pageSize;
+        List<ServicePost> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            ServicePost last = items.get(items.size() - 1);
+            nextCursor = new KeysetCursor(String.valueOf(last.getPlanPriority()), last.getId()).encode();
         }
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
     }
 
-    // 🟢 NEW: Get only Active posts for Travellers
-    public List<ServicePost> findActivePosts() {
-        return repo.findByStatus("ACTIVE");
+    /**
+     * Card-sized variant of {@link #findCatalogPage} for ACTIVE listing grids: same order and
+     * cursor, but only the card fields and the first image are read from MongoDB.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPageDTO<ServiceCardDTO> findCardPage(String cursor, int limit) {
+        int pageSize = clampPageSize(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        Query query = catalogPageQuery(false, after, pageSize);
+        query.fields().include(ServiceCardDTO.PROJECTED_FIELDS).slice("images", 1);
+
+        List<ServicePost> rows = mongoTemplate.find(query, ServicePost.class);
+        boolean hasMore = rows.size() > pageSize;
+        List<ServicePost> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        List<ServiceCardDTO> items = new ArrayList<>(page.size());
+        for (ServicePost post : page) {
+            items.add(ServiceCardDTO.from(post));
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            ServicePost last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(String.valueOf(last.getPlanPriority()), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    // (status?, planPriority, _id) keyset query shared by the catalog page variants.
+    private Query catalogPageQuery(boolean includeAll, KeysetCursor after, int pageSize) {
+        List<Criteria> filters = new ArrayList<>();
+        if (!includeAll) {
+            filters.add(Criteria.where("status").is(Status.ACTIVE));
+        }
+        if (after != null) {
+            filters.add(KeysetCriteria.after("planPriority", after.keyAsInt(), after.getId(), Sort.Direction.ASC));
+        }
+
+        Query query = new Query();
+        if (!filters.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(filters.toArray(new Criteria[0])));
+        }
+        query.with(Sort.by(Sort.Order.asc("planPriority"), Sort.Order.asc("id")));
+        // Fetch one extra row to learn whether another page exists without a count query.
+        query.limit(pageSize + 1);
+        return query;
+    }
+
+    // ==================================================================================
+    // TEXT SEARCH
+    // ==================================================================================
+
+    /**
+     * Relevance-ranked keyword search over ACTIVE posts using the weighted text index on
+     * ServicePost (title, category, district, location, description). The index lookup is
+     * per term, so cost follows the number of matches rather than the collection size.
+     *
+     * Pages are keyset-paginated on (text score desc, _id desc): the score is exposed with
+     * $meta in an aggregation so the cursor can seek past the last (score, id) pair instead
+     * of skipping earlier matches. Scores only change when a post is edited, which at worst
+     * moves that post across a page boundary. With no keyword the optional category is
+     * served from the (status, category, planPriority) index with the catalog's
+     * (planPriority, _id) keyset.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPageDTO<ServicePost> searchText(String keyword, String category, String cursor, int limit) {
+        int pageSize = clampPageSize(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (hasText(keyword)) {
+            return searchByScore(keyword.trim(), category, after, pageSize);
+        }
+        if (!hasText(category)) {
+            return new CursorPageDTO<>(new ArrayList<>(), null, false);
+        }
+
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(Criteria.where("status").is(Status.ACTIVE));
+        filters.add(Criteria.where("category").is(category));
+        if (after != null) {
+            int priority;
+            try {
+                priority = after.keyAsInt();
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            filters.add(KeysetCriteria.after("planPriority", priority, after.getId(), Sort.Direction.ASC));
+        }
+        Query query = new Query(new Criteria().andOperator(filters.toArray(new Criteria[0])))
+                .with(Sort.by(Sort.Order.asc("planPriority"), Sort.Order.asc("id")))
+                .limit(pageSize + 1);
+
+        List<ServicePost> rows = mongoTemplate.find(query, ServicePost.class);
+        boolean hasMore = rows.size() > pageSize;
+        List<ServicePost> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ServicePost last = items.get(items.size() - 1);
+            nextCursor = new KeysetCursor(String.valueOf(last.getPlanPriority()), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    // $text must be the first stage; the score is then a plain field the keyset can seek on.
+    private CursorPageDTO<ServicePost> searchByScore(String keyword, String category, KeysetCursor after,
+                                                     int pageSize) {
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(Criteria.where("status").is(Status.ACTIVE));
+        if (hasText(category)) {
+            filters.add(Criteria.where("category").is(category));
+        }
+
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        pipeline.add(Aggregation.match(TextCriteria.forDefaultLanguage().matching(keyword)));
+        pipeline.add(Aggregation.match(new Criteria().andOperator(filters.toArray(new Criteria[0]))));
+        pipeline.add(context -> new Document("$addFields",
+                new Document(SCORE_FIELD, new Document("$meta", "textScore"))));
+        if (after != null) {
+            double score;
+            try {
+                score = Double.parseDouble(after.getKey());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            pipeline.add(Aggregation.match(
+                    KeysetCriteria.after(SCORE_FIELD, score, after.getId(), Sort.Direction.DESC)));
+        }
+        pipeline.add(Aggregation.sort(Sort.by(Sort.Order.desc(SCORE_FIELD), Sort.Order.desc("id"))));
+        pipeline.add(Aggregation.limit(pageSize + 1));
+
+        TypedAggregation<ServicePost> aggregation = Aggregation.newAggregation(ServicePost.class, pipeline);
+        List<Document> rows = mongoTemplate.aggregate(aggregation, Document.class).getMappedResults();
+        boolean hasMore = rows.size() > pageSize;
+        List<Document> page = hasMore ? rows.subList(0, pageSize) : rows;
+        List<ServicePost> items = new ArrayList<>(page.size());
+        for (Document doc : page) {
+            items.add(mongoTemplate.getConverter().read(ServicePost.class, doc));
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            Document last = page.get(page.size() - 1);
+            double score = ((Number) last.get(SCORE_FIELD)).doubleValue();
+            nextCursor = new KeysetCursor(String.valueOf(score), items.get(items.size() - 1).getId()).encode();
+        }
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    // ==================================================================================
+    // FACETED FILTER
+    // ==================================================================================
+
+    /**
+     * Filtered catalog page plus facet counts in one aggregation round trip.
+     *
+     * All filters go into the leading $match so it can use the compound indexes declared
+     * on ServicePost ($facet sub-pipelines cannot use indexes). The $facet then returns the
+     * keyset page (same order/cursor as {@link #findCatalogPage}), the total, and counts per
+     * district / category / plan for the dimensions that are not already filtered.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public FacetedPageDTO<ServicePost> filterCatalog(ServiceFilterDTO filter, String cursor, int limit) {
+        int pageSize = clampPageSize(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(Criteria.where("status").is(Status.ACTIVE));
+        if (hasText(filter.getDistrict())) {
+            filters.add(Criteria.where("district").is(filter.getDistrict()));
+        }
+        if (hasText(filter.getCategory())) {
+            filters.add(Criteria.where("category").is(filter.getCategory()));
+        }
+        if (hasText(filter.getPlan())) {
+            filters.add(Criteria.where("planPriority").is(ServicePost.planPriorityOf(filter.getPlan())));
+        }
+        if (filter.getPriceFrom() != null || filter.getPriceTo() != null) {
+            Criteria price = Criteria.where("priceFrom");
+            if (filter.getPriceFrom() != null) price.gte(filter.getPriceFrom());
+            if (filter.getPriceTo() != null) price.lte(filter.getPriceTo());
+            filters.add(price);
+        }
+        if (filter.getMinRating() != null) {
+            // average = ratingSum / ratingCount; compared via $expr after the indexed filters
+            filters.add(Criteria.where("ratingCount").gt(0));
+            filters.add(Criteria.expr(ComparisonOperators.Gte
+                    .valueOf(ArithmeticOperators.Divide.valueOf("ratingSum").divideBy("ratingCount"))
+                    .greaterThanEqualToValue(filter.getMinRating())));
+        }
+
+        List<AggregationOperation> itemsPipeline = new ArrayList<>();
+        if (after != null) {
+            itemsPipeline.add(Aggregation.match(
+                    KeysetCriteria.after("planPriority", after.keyAsInt(), after.getId(), Sort.Direction.ASC)));
+        }
+        itemsPipeline.add(Aggregation.sort(Sort.by(Sort.Order.asc("planPriority"), Sort.Order.asc("id"))));
+        itemsPipeline.add(Aggregation.limit(pageSize + 1));
+
+        FacetOperation facets = Aggregation.facet(itemsPipeline.toArray(new AggregationOperation[0])).as("items")
+                .and(Aggregation.count().as("n")).as("total");
+        if (!hasText(filter.getDistrict())) {
+            facets = facets.and(Aggregation.group("district").count().as("count")).as("district");
+        }
+        if (!hasText(filter.getCategory())) {
+            facets = facets.and(Aggregation.group("category").count().as("count")).as("category");
+        }
+        if (!hasText(filter.getPlan())) {
+            facets = facets.and(Aggregation.group("planPriority").count().as("count")).as("plan");
+        }
+
+        TypedAggregation<ServicePost> aggregation = Aggregation.newAggregation(
+                ServicePost.class,
+                Aggregation.match(new Criteria().andOperator(filters.toArray(new Criteria[0]))),
+                facets
+        );
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        if (result == null) result = new Document();
+
+        List<ServicePost> rows = new ArrayList<>();
+        for (Document doc : result.getList("items", Document.class, List.of())) {
+            rows.add(mongoTemplate.getConverter().read(ServicePost.class, doc));
+        }
+        boolean hasMore = rows.size() > pageSize;
+        List<ServicePost> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ServicePost last = items.get(items.size() - 1);
+            nextCursor = new KeysetCursor(String.valueOf(last.getPlanPriority()), last.getId()).encode();
+        }
+
+        List<Document> totalRows = result.getList("total", Document.class, List.of());
+        long total = totalRows.isEmpty() ? 0 : ((Number) totalRows.get(0).get("n")).longValue();
+
+        Map<String, Map<String, Long>> facetCounts = new LinkedHashMap<>();
+        for (String dimension : List.of("district", "category", "plan")) {
+            if (!result.containsKey(dimension)) continue;
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (Document bucket : result.getList(dimension, Document.class)) {
+                Object value = bucket.get("_id");
+                if (value == null) continue;
+                String key = "plan".equals(dimension)
+                        ? ServicePost.planTierOf(((Number) value).intValue())
+                        : value.toString();
+                counts.merge(key, ((Number) bucket.get("count")).longValue(), Long::sum);
+            }
+            facetCounts.put(dimension, counts);
+        }
+
+        return new FacetedPageDTO<>(items, nextCursor, hasMore, total, facetCounts);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    public static int clampPageSize(int limit) {
+        if (limit <= 0) return DEFAULT_PAGE_SIZE;
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Posts saved before planPriority was persisted sort as "missing" in MongoDB.
+     * Recompute the rank for them once the app is up; runs off the startup thread.
+     */
+    @Async(TaskConfig.MAINTENANCE_EXECUTOR)
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPlanPriority() {
+        try {
+            Query missing = new Query(Criteria.where("planPriority").exists(false));
+            missing.fields().include("planName");
+            int updated = 0;
+            try (Stream<ServicePost> stream = mongoTemplate.stream(missing, ServicePost.class)) {
+                for (ServicePost post : (Iterable<ServicePost>) stream::iterator) {
+                    mongoTemplate.updateFirst(
+                            new Query(Criteria.where("id").is(post.getId())),
+                            new Update().set("planPriority", ServicePost.planPriorityOf(post.getPlanName())),
+                            ServicePost.class
+                    );
+                    updated++;
+                }
+            }
+            if (updated > 0) {
+                logger.info("Backfilled planPriority on {} service post(s)", updated);
+            }
+        } catch (Exception e) {
+            logger.warn("planPriority backfill skipped: {}", e.getMessage());
+        }
     }
 }
 
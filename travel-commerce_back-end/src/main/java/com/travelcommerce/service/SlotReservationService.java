@@ -0,0 +1,137 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.dto.AvailabilityDTO;
+import com.travelcommerce.model.SlotReservation;
+import com.travelcommerce.model.ServicePost;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-service, per-day booking capacity (ServicePost.dailyCapacity).
+ *
+ * A reservation is one upserting findAndModify on the day's slot_reservations document,
+ * filtered on {@code reserved < capacity}. When the slot is full the filter matches nothing,
+ * the upsert tries to insert the existing _id and fails with a duplicate key, which is the
+ * "sold out" signal; concurrent checkouts can never push the counter past capacity.
+ * Days are UTC dates, matching how date-only JSON values are parsed.
+ */
+@Service
+public class SlotReservationService {
+
+    public static final int MAX_AVAILABILITY_DAYS = 92;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Takes one unit of capacity for the booking's day.
+     *
+     * @return true when reserved, false when the day is full. Always true for services
+     *         without a daily capacity (nothing is tracked for them).
+     */
+    public boolean reserve(ServicePost service, Date bookingDate) {
+        Integer capacity = service.getDailyCapacity();
+        if (capacity == null || capacity <= 0) return true;
+        String day = dayOf(bookingDate);
+        Query openSlot = new Query(new Criteria().andOperator(
+                Criteria.where("id").is(slotId(service.getId(), day)),
+                Criteria.where("reserved").lt(capacity)));
+        Update take = new Update()
+                .inc("reserved", 1)
+                .set("updatedAt", new Date())
+                .setOnInsert("serviceId", service.getId())
+                .setOnInsert("date", day);
+        try {
+            return mongoTemplate.findAndModify(openSlot, take,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), SlotReservation.class) != null;
+        } catch (DuplicateKeyException full) {
+            return false;
+        }
+    }
+
+    /** Gives one unit of capacity back (cancelled or deleted booking). */
+    public void release(String serviceId, Date bookingDate) {
+        if (serviceId == null || bookingDate == null) return;
+        Query held = new Query(new Criteria().andOperator(
+                Criteria.where("id").is(slotId(serviceId, dayOf(bookingDate))),
+                Criteria.where("reserved").gt(0)));
+        mongoTemplate.updateFirst(held, new Update().inc("reserved", -1).set("updatedAt", new Date()),
+                SlotReservation.class);
+    }
+
+    /** Gives {@code units} back at once (bulk deletes); never takes the counter below zero. */
+    public void release(String serviceId, Date bookingDate, int units) {
+        if (units == 1) release(serviceId, bookingDate);
+        if (serviceId == null || bookingDate == null || units <= 1) return;
+        String id = slotId(serviceId, dayOf(bookingDate));
+        Query held = new Query(new Criteria().andOperator(
+                Criteria.where("id").is(id),
+                Criteria.where("reserved").gte(units)));
+        long matched = mongoTemplate.updateFirst(held,
+                new Update().inc("reserved", -units).set("updatedAt", new Date()),
+                SlotReservation.class).getMatchedCount();
+        if (matched == 0) {
+            // Fewer held than released (drift): empty the day rather than going negative.
+            mongoTemplate.updateFirst(
+                    new Query(new Criteria().andOperator(
+                            Criteria.where("id").is(id), Criteria.where("reserved").gt(0))),
+                    new Update().set("reserved", 0).set("updatedAt", new Date()),
+                    SlotReservation.class);
+        }
+    }
+
+    /**
+     * Reserved / available counts for each day in [from, to], read from the reservation
+     * counters only (one indexed range query, no booking scan).
+     *
+     * @throws IllegalArgumentException when the range is reversed or longer than 92 days
+     */
+    public AvailabilityDTO availability(ServicePost service, LocalDate from, LocalDate to) {
+        long span = ChronoUnit.DAYS.between(from, to) + 1;
+        if (span <= 0) throw new IllegalArgumentException("'to' must not be before 'from'");
+        if (span > MAX_AVAILABILITY_DAYS) {
+            throw new IllegalArgumentException("Range is limited to " + MAX_AVAILABILITY_DAYS + " days");
+        }
+
+        Map<String, Integer> reservedByDay = new HashMap<>();
+        Query range = new Query(new Criteria().andOperator(
+                Criteria.where("serviceId").is(service.getId()),
+                Criteria.where("date").gte(from.toString()).lte(to.toString())));
+        for (SlotReservation slot : mongoTemplate.find(range, SlotReservation.class)) {
+            reservedByDay.put(slot.getDate(), slot.getReserved());
+        }
+
+        Integer capacity = service.getDailyCapacity() != null && service.getDailyCapacity() > 0
+                ? service.getDailyCapacity() : null;
+        List<AvailabilityDTO.Day> days = new ArrayList<>((int) span);
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            int reserved = reservedByDay.getOrDefault(d.toString(), 0);
+            Integer available = capacity == null ? null : Math.max(0, capacity - reserved);
+            days.add(new AvailabilityDTO.Day(d.toString(), reserved, available));
+        }
+        return new AvailabilityDTO(service.getId(), capacity, days);
+    }
+
+    static String dayOf(Date date) {
+        return date.toInstant().atZone(ZoneOffset.UTC).toLocalDate().toString();
+    }
+
+    private static String slotId(String serviceId, String day) {
+        return serviceId + ":" + day;
+    }
+}
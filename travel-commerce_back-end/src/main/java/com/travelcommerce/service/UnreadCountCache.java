@@ -0,0 +1,129 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.model.Notification;
+import com.travelcommerce.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user unread notification counters, so GET /api/notifications/unread-count and the
+ * SSE unread-count events don't run a MongoDB count each time.
+ *
+ * A counter is seeded from countByRecipientIdAndReadFalse on the first read and then moved
+ * by NotificationService's writes. While the seed count runs a placeholder sits in the map;
+ * a write that reaches it marks it dirty and the count is then returned but not cached,
+ * since it may or may not include that write. Entries are reseeded after {@value #TTL_MS} ms, which also
+ * picks up writes this node doesn't see (other nodes, cascade deletes). At most
+ * {@value #MAX_ENTRIES} users are cached; expired entries are dropped first when full.
+ */
+@Service
+public class UnreadCountCache {
+
+    static final long TTL_MS = 5 * 60 * 1000;
+    static final int MAX_ENTRIES = 50_000;
+
+    private static final class Counter {
+        final LongAdder unread = new LongAdder();
+        final long seededAt = System.currentTimeMillis();
+        final boolean pending;  // placeholder for a seed count still running
+        boolean dirty;          // pending only: a write arrived, so the seed is unusable
+
+        Counter(long initial) {
+            unread.add(initial);
+            this.pending = false;
+        }
+
+        private Counter() {
+            this.pending = true;
+        }
+    }
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public long get(String userId) {
+        Counter counter = counters.get(userId);
+        if (fresh(counter)) {
+            return Math.max(0, counter.unread.sum());
+        }
+        if (counters.size() >= MAX_ENTRIES) {
+            evict();
+        }
+        Counter placeholder = new Counter();
+        Counter installed = counters.compute(userId, (k, existing) -> fresh(existing) ? existing : placeholder);
+        if (installed != placeholder) {
+            return Math.max(0, installed.unread.sum());
+        }
+        // Counted outside the map lock. The seed is kept only if our placeholder is still in
+        // place and clean; a counter another reader seeded meanwhile wins.
+        long count = notificationRepository.countByRecipientIdAndReadFalse(userId);
+        Counter seeded = counters.compute(userId, (k, existing) -> {
+            if (existing == placeholder) return placeholder.dirty ? null : new Counter(count);
+            return existing;
+        });
+        return fresh(seeded) ? Math.max(0, seeded.unread.sum()) : count;
+    }
+
+    /** New notifications: bumps the counters of recipients that are cached. */
+    public void added(Collection<Notification> notifications) {
+        for (Notification n : notifications) {
+            if (!n.isRead() && n.getRecipientId() != null) {
+                adjust(n.getRecipientId(), 1);
+            }
+        }
+    }
+
+    /** One unread notification of {@code userId} was read or deleted. */
+    public void decrement(String userId) {
+        adjust(userId, -1);
+    }
+
+    /** Everything of {@code userId} was read or deleted. */
+    public void reset(String userId) {
+        counters.computeIfPresent(userId, (k, c) -> {
+            if (c.pending) {
+                c.dirty = true;
+                return c;
+            }
+            return new Counter(0);
+        });
+    }
+
+    /** Forgets {@code userId}; the next read reseeds from MongoDB. */
+    public void invalidate(String userId) {
+        counters.remove(userId);
+    }
+
+    // Runs under the map's per-key lock so it can't slip between a seed count finishing and
+    // its placeholder being swapped. A counter driven below zero has drifted (it missed an
+    // increment), so it is dropped and reseeded on the next read instead of being clamped.
+    private void adjust(String userId, long delta) {
+        counters.computeIfPresent(userId, (k, c) -> {
+            if (c.pending) {
+                c.dirty = true;
+                return c;
+            }
+            c.unread.add(delta);
+            return c.unread.sum() < 0 ? null : c;
+        });
+    }
+
+    private static boolean fresh(Counter counter) {
+        return counter != null && !counter.pending && System.currentTimeMillis() - counter.seededAt < TTL_MS;
+    }
+
+    private void evict() {
+        long cutoff = System.currentTimeMillis() - TTL_MS;
+        counters.values().removeIf(c -> c.seededAt < cutoff);
+        if (counters.size() >= MAX_ENTRIES) {
+            counters.clear(); // crude bound; counters are cheap to reseed
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.travelcommerce.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Date;
 import java.util.List;
 
 @Service
@@ -13,14 +14,21 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CascadeDeleteService cascadeDeletes;
+
     // Get all users (For Admin Dashboard)
     public List<User> findAllUsers() {
         return userRepository.findAll();
     }
 
     // Delete a user (Ban/Remove)
+    // Their listings, reviews, bookings, wishlist and notifications are cleaned up in the
+    // background; notifications created after this call (e.g. USER_REMOVED) are kept.
     public void deleteUser(String id) {
+        Date deletedAt = new Date();
         userRepository.deleteById(id);
+        cascadeDeletes.userDeleted(id, deletedAt);
     }
 
     // Find user by ID (Helper)
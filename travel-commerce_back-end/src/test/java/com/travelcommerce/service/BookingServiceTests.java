@@ -0,0 +1,113 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.exceptions.ConflictException;
+import com.travelcommerce.exceptions.ResourceNotFoundException;
+import com.travelcommerce.model.Booking;
+import com.travelcommerce.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BookingServiceTests {
+
+    private MongoTemplate mongoTemplate;
+    private BookingRepository bookingRepository;
+    private SlotReservationService slots;
+    private BookingService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bookingRepository = mock(BookingRepository.class);
+        slots = mock(SlotReservationService.class);
+        service = new BookingService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(service, "slotReservations", slots);
+        ReflectionTestUtils.setField(service, "eventPublisher", mock(ApplicationEventPublisher.class));
+    }
+
+    private static Booking booking(String status, boolean slotReserved) {
+        Booking b = new Booking();
+        b.setId("b1");
+        b.setProviderId("p1");
+        b.setTravellerId("t1");
+        b.setServiceId("s1");
+        b.setStatus(status);
+        b.setSlotReserved(slotReserved);
+        b.setBookingDate(new Date(0));
+        return b;
+    }
+
+    private void transitionReturns(Booking result) {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Booking.class)))
+                .thenReturn(result);
+    }
+
+    @Test
+    void confirmIsOneConditionalUpdateFromPending() {
+        transitionReturns(booking("CONFIRMED", true));
+
+        Booking updated = service.providerTransition("b1", "p1", "confirmed");
+
+        assertEquals("CONFIRMED", updated.getStatus());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(Booking.class));
+        String filter = query.getValue().getQueryObject().toJson();
+        assertTrue(filter.contains("\"providerId\": \"p1\""), filter);
+        assertTrue(filter.contains("\"status\": {\"$in\": [\"PENDING\"]}"), filter);
+        verifyNoInteractions(slots);
+    }
+
+    @Test
+    void providerCancelGivesTheSlotBack() {
+        transitionReturns(booking("CANCELLED", true));
+
+        service.providerTransition("b1", "p1", "CANCELLED");
+
+        verify(slots).release(eq("s1"), any(Date.class));
+    }
+
+    @Test
+    void unknownTargetIsRejectedWithoutTouchingMongo() {
+        assertThrows(IllegalArgumentException.class, () -> service.providerTransition("b1", "p1", "PENDING"));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void failedTransitionReportsWhy() {
+        transitionReturns(null);
+
+        when(mongoTemplate.findById("b1", Booking.class)).thenReturn(null);
+        assertThrows(ResourceNotFoundException.class, () -> service.providerTransition("b1", "p1", "COMPLETED"));
+
+        when(mongoTemplate.findById("b1", Booking.class)).thenReturn(booking("PENDING", false));
+        assertThrows(AccessDeniedException.class, () -> service.providerTransition("b1", "p2", "COMPLETED"));
+        assertThrows(ConflictException.class, () -> service.providerTransition("b1", "p1", "COMPLETED"));
+        verifyNoInteractions(slots);
+    }
+
+    @Test
+    void deleteReleasesOnlyWhenItRemovedAnOpenBooking() {
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Booking.class))).thenReturn(booking("PENDING", true), (Booking) null);
+        when(bookingRepository.existsById("b1")).thenReturn(true);
+
+        service.delete("b1", true);
+        assertThrows(ConflictException.class, () -> service.delete("b1", true));
+
+        verify(slots, times(1)).release(eq("s1"), any(Date.class));
+    }
+}
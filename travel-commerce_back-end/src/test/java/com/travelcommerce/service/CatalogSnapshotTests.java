@@ -0,0 +1,86 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.model.ServicePost;
+import com.travelcommerce.model.Status;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTests {
+
+    private static ServicePost post(String id, String planName, Status status) {
+        ServicePost p = new ServicePost();
+        p.setId(id);
+        p.setPlanName(planName);
+        p.setStatus(status);
+        return p;
+    }
+
+    private static List<String> ids(CatalogSnapshot snap) {
+        return snap.getPosts().stream().map(ServicePost::getId).toList();
+    }
+
+    @Test
+    void keepsOnlyActivePostsSortedByPlanPriorityThenId() {
+        CatalogSnapshot snap = CatalogSnapshot.of(List.of(
+                post("b", "Standard Listing", Status.ACTIVE),
+                post("c", null, Status.ACTIVE),
+                post("a", "Premium Spotlight", Status.ACTIVE),
+                post("d", "Featured Visibility", Status.PENDING),
+                post("e", "Standard Listing", Status.ACTIVE)
+        ));
+
+        assertEquals(List.of("a", "b", "e", "c"), ids(snap));
+        assertNull(snap.find("d"));
+    }
+
+    @Test
+    void upsertReplacesInPlaceAndChangesVersion() {
+        CatalogSnapshot v1 = CatalogSnapshot.of(List.of(
+                post("a", "Premium", Status.ACTIVE),
+                post("b", null, Status.ACTIVE)
+        ));
+
+        CatalogSnapshot v2 = v1.with(post("b", "Featured", Status.ACTIVE));
+
+        assertEquals(List.of("a", "b"), ids(v1), "old snapshot must not change");
+        assertEquals(List.of("a", "b"), ids(v2));
+        assertEquals("Featured", v2.find("b").getPlanName());
+        assertNotEquals(v1.getVersion(), v2.getVersion());
+
+        CatalogSnapshot v3 = v2.with(post("c", "Premium", Status.ACTIVE));
+        assertEquals(List.of("a", "c", "b"), ids(v3));
+    }
+
+    @Test
+    void nonActiveUpsertRemovesAndUnknownPostIsNoOp() {
+        CatalogSnapshot v1 = CatalogSnapshot.of(List.of(post("a", null, Status.ACTIVE)));
+
+        assertSame(v1, v1.with(post("z", null, Status.PENDING)));
+        assertSame(v1, v1.without("z"));
+
+        CatalogSnapshot banned = v1.with(post("a", null, Status.BANNED));
+        assertEquals(0, banned.size());
+        assertEquals(0, v1.without("a").size());
+    }
+
+    @Test
+    void reloadWithSameContentsKeepsVersion() {
+        Date updated = new Date(1_700_000_000_000L);
+        ServicePost a = post("a", "Premium", Status.ACTIVE);
+        a.setUpdatedAt(updated);
+        ServicePost b = post("b", null, Status.ACTIVE);
+        b.setUpdatedAt(updated);
+
+        CatalogSnapshot first = CatalogSnapshot.of(List.of(a, b));
+        CatalogSnapshot reloaded = CatalogSnapshot.of(List.of(b, a));
+        assertEquals(first.getVersion(), reloaded.getVersion());
+
+        ServicePost edited = post("b", null, Status.ACTIVE);
+        edited.setUpdatedAt(new Date(updated.getTime() + 1));
+        assertNotEquals(first.getVersion(), CatalogSnapshot.of(List.of(a, edited)).getVersion());
+    }
+}
@@ -0,0 +1,127 @@
+package com.travelcommerce.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelcommerce.exceptions.ConflictException;
+import com.travelcommerce.model.IdempotencyRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTests {
+
+    private static final Map<String, Object> PAYLOAD = Map.of("serviceId", "s1", "guests", 2);
+
+    private MongoTemplate mongoTemplate;
+    private IdempotencyService idempotency;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        idempotency = new IdempotencyService();
+        ReflectionTestUtils.setField(idempotency, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(idempotency, "objectMapper", new ObjectMapper());
+    }
+
+    // The record a first request with PAYLOAD would have stored.
+    private IdempotencyRecord firstClaim() {
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenAnswer(inv -> inv.getArgument(0));
+        IdempotencyRecord claim = idempotency.claim("u1", "k1", PAYLOAD);
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("E11000"));
+        return claim;
+    }
+
+    private IdempotencyRecord existing(IdempotencyRecord claim, boolean completed, long leaseOffsetMs) {
+        IdempotencyRecord r = new IdempotencyRecord();
+        r.setId(claim.getId());
+        r.setRequestHash(claim.getRequestHash());
+        r.setOwner(claim.getOwner());
+        r.setCompleted(completed);
+        r.setLeaseExpiresAt(new Date(System.currentTimeMillis() + leaseOffsetMs));
+        return r;
+    }
+
+    @Test
+    void firstRequestGetsItsOwnClaim() {
+        IdempotencyRecord claim = firstClaim();
+
+        assertEquals("u1:k1", claim.getId());
+        assertFalse(claim.isCompleted());
+        assertNotNull(claim.getOwner());
+        assertTrue(claim.getLeaseExpiresAt().after(new Date()));
+    }
+
+    @Test
+    void retryOfACompletedRequestIsReplayed() {
+        IdempotencyRecord done = existing(firstClaim(), true, 0);
+        done.setResponseStatus(201);
+        done.setResponseBody("{\"success\":true}");
+        when(mongoTemplate.findById("u1:k1", IdempotencyRecord.class)).thenReturn(done);
+
+        IdempotencyRecord result = idempotency.claim("u1", "k1", Map.of("guests", 2, "serviceId", "s1"));
+
+        assertTrue(result.isCompleted());
+        ResponseEntity<String> replay = idempotency.replay(result);
+        assertEquals(201, replay.getStatusCode().value());
+        assertEquals("true", replay.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("{\"success\":true}", replay.getBody());
+    }
+
+    @Test
+    void keyReusedForAnotherPayloadIsRejected() {
+        IdempotencyRecord done = existing(firstClaim(), true, 0);
+        when(mongoTemplate.findById("u1:k1", IdempotencyRecord.class)).thenReturn(done);
+
+        assertThrows(IllegalArgumentException.class, () -> idempotency.claim("u1", "k1", Map.of("serviceId", "s2")));
+    }
+
+    @Test
+    void retryWhileTheLeaseIsHeldConflicts() {
+        IdempotencyRecord running = existing(firstClaim(), false, 10_000);
+        when(mongoTemplate.findById("u1:k1", IdempotencyRecord.class)).thenReturn(running);
+
+        assertThrows(ConflictException.class, () -> idempotency.claim("u1", "k1", PAYLOAD));
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(IdempotencyRecord.class));
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverByOneRetry() {
+        IdempotencyRecord stale = existing(firstClaim(), false, -1);
+        when(mongoTemplate.findById("u1:k1", IdempotencyRecord.class)).thenReturn(stale);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(IdempotencyRecord.class)))
+                .thenAnswer(inv -> {
+                    String filter = inv.getArgument(0, Query.class).getQueryObject().toJson();
+                    assertTrue(filter.contains(stale.getOwner()), "takeover must be conditional on the old owner");
+                    IdempotencyRecord taken = existing(stale, false, 30_000);
+                    taken.setOwner("new-owner");
+                    return taken;
+                });
+
+        IdempotencyRecord claim = idempotency.claim("u1", "k1", PAYLOAD);
+
+        assertEquals("new-owner", claim.getOwner());
+        assertFalse(claim.isCompleted());
+    }
+
+    @Test
+    void serverErrorsReleaseTheClaimInsteadOfBeingStored() {
+        IdempotencyRecord claim = firstClaim();
+
+        idempotency.complete(claim, ResponseEntity.status(503).body(Map.of("success", false)));
+
+        verify(mongoTemplate).remove(any(Query.class), eq(IdempotencyRecord.class));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class));
+    }
+}
@@ -0,0 +1,48 @@
+package com.travelcommerce.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MongoExportServiceTests {
+
+    record Row(int n) { }
+
+    private MongoExportService export;
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.stream(any(Query.class), eq(Row.class))).thenAnswer(inv -> Stream.of(new Row(1), new Row(2)));
+        export = new MongoExportService();
+        ReflectionTestUtils.setField(export, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(export, "objectMapper", new ObjectMapper());
+    }
+
+    private String run(boolean ndjson) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.export(new Query(), Row.class, ndjson).writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void ndjsonLinesStartWithTheDocument() throws Exception {
+        assertEquals("{\"n\":1}\n{\"n\":2}\n", run(true));
+    }
+
+    @Test
+    void arrayModeWritesOneJsonArray() throws Exception {
+        assertEquals("[{\"n\":1},{\"n\":2}]", run(false));
+    }
+}
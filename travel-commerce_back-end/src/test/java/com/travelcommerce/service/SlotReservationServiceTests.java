@@ -0,0 +1,84 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.model.ServicePost;
+import com.travelcommerce.model.SlotReservation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SlotReservationServiceTests {
+
+    // 23:30 UTC: already the next day in zones east of UTC.
+    private static final Date LATE_EVENING = Date.from(Instant.parse("2026-10-17T23:30:00Z"));
+
+    private MongoTemplate mongoTemplate;
+    private SlotReservationService slots;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        slots = new SlotReservationService();
+        ReflectionTestUtils.setField(slots, "mongoTemplate", mongoTemplate);
+    }
+
+    private static ServicePost service(Integer capacity) {
+        ServicePost p = new ServicePost();
+        p.setId("s1");
+        p.setDailyCapacity(capacity);
+        return p;
+    }
+
+    @Test
+    void servicesWithoutCapacityAreNotTracked() {
+        assertTrue(slots.reserve(service(null), LATE_EVENING));
+        assertTrue(slots.reserve(service(0), LATE_EVENING));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void reserveTakesAUnitOnlyBelowCapacity() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(SlotReservation.class)))
+                .thenReturn(new SlotReservation());
+
+        assertTrue(slots.reserve(service(3), LATE_EVENING));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(SlotReservation.class));
+        String filter = query.getValue().getQueryObject().toJson();
+        assertTrue(filter.contains("\"s1:2026-10-17\""), filter);
+        assertTrue(filter.contains("\"reserved\": {\"$lt\": 3}"), filter);
+    }
+
+    @Test
+    void fullDaySurfacesAsDuplicateKeyAndIsReportedAsSoldOut() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(SlotReservation.class)))
+                .thenThrow(new DuplicateKeyException("E11000"));
+
+        assertFalse(slots.reserve(service(1), LATE_EVENING));
+    }
+
+    @Test
+    void releaseNeverTakesTheCounterBelowZero() {
+        slots.release("s1", null);
+        verifyNoInteractions(mongoTemplate);
+
+        slots.release("s1", LATE_EVENING);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(query.capture(), any(Update.class), eq(SlotReservation.class));
+        assertTrue(query.getValue().getQueryObject().toJson().contains("\"reserved\": {\"$gt\": 0}"));
+    }
+}
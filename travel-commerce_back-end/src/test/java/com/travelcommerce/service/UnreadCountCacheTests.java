@@ -0,0 +1,97 @@
+package com.travelcommerce.service;
+
+import com.travelcommerce.model.Notification;
+import com.travelcommerce.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UnreadCountCacheTests {
+
+    private NotificationRepository repository;
+    private UnreadCountCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(NotificationRepository.class);
+        cache = new UnreadCountCache();
+        ReflectionTestUtils.setField(cache, "notificationRepository", repository);
+    }
+
+    private static Notification unreadFor(String recipientId) {
+        Notification n = new Notification();
+        n.setRecipientId(recipientId);
+        return n;
+    }
+
+    @Test
+    void seedsOnceThenServesWritesFromMemory() {
+        when(repository.countByRecipientIdAndReadFalse("u1")).thenReturn(3L);
+
+        assertEquals(3, cache.get("u1"));
+        cache.added(List.of(unreadFor("u1"), unreadFor("u1"), unreadFor("u2")));
+        cache.decrement("u1");
+        assertEquals(4, cache.get("u1"));
+
+        cache.reset("u1");
+        assertEquals(0, cache.get("u1"));
+        verify(repository, times(1)).countByRecipientIdAndReadFalse("u1");
+    }
+
+    @Test
+    void writesForUncachedUsersAreIgnoredUntilSeeded() {
+        cache.added(List.of(unreadFor("u2")));
+        cache.decrement("u2");
+        when(repository.countByRecipientIdAndReadFalse("u2")).thenReturn(1L);
+
+        assertEquals(1, cache.get("u2"));
+    }
+
+    @Test
+    void decrementBelowZeroReseedsAndInvalidateForcesReseed() {
+        when(repository.countByRecipientIdAndReadFalse("u1")).thenReturn(0L, 2L, 5L);
+
+        assertEquals(0, cache.get("u1"));
+        cache.decrement("u1");
+        assertEquals(2, cache.get("u1"));
+
+        cache.invalidate("u1");
+        assertEquals(5, cache.get("u1"));
+    }
+
+    @Test
+    void slowSeedKeepsCounterSeededMeanwhile() {
+        // While the first count is running, another reader seeds and a notification arrives.
+        when(repository.countByRecipientIdAndReadFalse("u1"))
+                .thenAnswer(inv -> {
+                    assertEquals(3, cache.get("u1"));
+                    cache.added(List.of(unreadFor("u1")));
+                    return 3L;
+                })
+                .thenReturn(3L);
+
+        assertEquals(4, cache.get("u1"));
+        assertEquals(4, cache.get("u1"));
+    }
+
+    @Test
+    void writeDuringSeedCountIsNotCached() {
+        // The notification may or may not be in the first count, so that count isn't kept.
+        when(repository.countByRecipientIdAndReadFalse("u1"))
+                .thenAnswer(inv -> {
+                    cache.added(List.of(unreadFor("u1")));
+                    return 3L;
+                })
+                .thenReturn(4L);
+
+        assertEquals(3, cache.get("u1"));
+        assertEquals(4, cache.get("u1"));
+        assertEquals(4, cache.get("u1"));
+        verify(repository, times(2)).countByRecipientIdAndReadFalse("u1");
+    }
+}
@@ -3,6 +3,20 @@ import axios from "./axiosConfig";
 // Get all notifications for current user
 export const getNotifications = () => axios.get("/notifications");
 
+const API_BASE = import.meta.env.VITE_API_BASE || "http://localhost:8080/api";
+
+// Live stream of "notification" and "unread-count" events (Server-Sent Events).
+// EventSource can't send headers, so a short-lived stream ticket goes in the query string
+// (never the session JWT). Tickets expire within a minute: fetch a new one per (re)connect.
+// Resolves to null when streaming isn't available.
+export const openNotificationStream = async (lastEventId) => {
+  if (!localStorage.getItem("token") || typeof EventSource === "undefined") return null;
+  const res = await axios.post("/notifications/stream-ticket");
+  const params = new URLSearchParams({ ticket: res.data.data.ticket });
+  if (lastEventId) params.set("lastEventId", lastEventId);
+  return new EventSource(`${API_BASE}/notifications/stream?${params}`);
+};
+
 // Get unread notification count
 export const getUnreadCount = () => axios.get("/notifications/unread-count");
 
@@ -23,5 +37,9 @@ export const adminSendNotification = (recipientId, message) =>
   axios.post("/notifications/admin/send", { recipientId, message });
 
 // Admin: Broadcast notification to users (targetRole: "ALL", "ROLE_TRAVELLER", "ROLE_PROVIDER")
+// Runs in the background: responds 202 with data.job ({ jobId, status, total, sent, ... })
 export const adminBroadcast = (message, targetRole = "ALL") =>
   axios.post("/notifications/admin/broadcast", { message, targetRole });
+
+// Admin: Progress of a broadcast job (status QUEUED, RUNNING, COMPLETED or FAILED)
+export const getBroadcastJob = (jobId) => axios.get(`/notifications/admin/broadcast/${jobId}`);
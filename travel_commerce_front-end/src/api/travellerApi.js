@@ -2,11 +2,33 @@
 import api from "./axiosConfig";
 
 // Booking APIs
-export const createBooking = (bookingData) => api.post("/bookings", bookingData);
+// One key per booking form submission; send the same key again when retrying that submission
+// crypto.randomUUID only exists in secure contexts (https/localhost), so fall back to Math.random
+export const newIdempotencyKey = () => {
+  if (typeof crypto !== "undefined" && typeof crypto.randomUUID === "function") {
+    return crypto.randomUUID();
+  }
+  return "xxxxxxxx-xxxx-4xxx-yxxx-xxxxxxxxxxxx".replace(/[xy]/g, (c) => {
+    const r = (Math.random() * 16) | 0;
+    return (c === "x" ? r : (r & 0x3) | 0x8).toString(16);
+  });
+};
+// The server replays the first response for a repeated key instead of booking twice
+export const createBooking = (bookingData, idempotencyKey) =>
+  api.post("/bookings", bookingData, {
+    headers: idempotencyKey ? { "Idempotency-Key": idempotencyKey } : {},
+  });
 export const getMyBookings = () => api.get("/bookings/my-bookings");
 export const getProviderBookings = () => api.get("/bookings/provider-bookings");
+// Paged inboxes: { items, nextCursor, hasMore }; params: status, from, to, cursor, limit
+export const getMyBookingsPage = (params = {}) => api.get("/bookings/my-bookings/page", { params });
+export const getProviderBookingsPage = (params = {}) => api.get("/bookings/provider-bookings/page", { params });
+export const getBooking = (bookingId) => api.get(`/bookings/${bookingId}`);
 export const updateBookingStatus = (bookingId, status) => 
   api.put(`/bookings/${bookingId}/status`, { status });
+// Provider bulk transition: { status, updated: [rows], skipped: [ids] } in response.data.data
+export const bulkUpdateBookingStatus = (ids, status) =>
+  api.put("/bookings/bulk-status", { ids, status });
 export const cancelBooking = (bookingId) => api.put(`/bookings/${bookingId}/cancel`);
 export const hideBooking = (bookingId) => api.put(`/bookings/${bookingId}/hide`);
 export const deleteBooking = (bookingId) => api.delete(`/bookings/${bookingId}`);
@@ -14,6 +36,11 @@ export const deleteBooking = (bookingId) => api.delete(`/bookings/${bookingId}`)
 // Review APIs
 export const createReview = (reviewData) => api.post("/reviews", reviewData);
 export const getServiceReviews = (serviceId) => api.get(`/reviews/service/${serviceId}`);
+// Paged threads: { items, nextCursor, hasMore }; each review has a reply preview + replyCount
+export const getServiceReviewsPage = (serviceId, params = {}) =>
+  api.get(`/reviews/service/${serviceId}/page`, { params });
+export const getReviewReplies = (reviewId, params = {}) =>
+  api.get(`/reviews/${reviewId}/replies`, { params });
 export const getMyReviews = () => api.get("/reviews/my-reviews");
 export const deleteReview = (reviewId) => api.delete(`/reviews/${reviewId}`);
 export const createReply = (parentReviewId, replyData) => api.post(`/reviews/${parentReviewId}/reply`, replyData);
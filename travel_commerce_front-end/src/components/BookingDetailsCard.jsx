@@ -38,6 +38,12 @@ export default function BookingDetailsCard({
 
   const currentStatus = statusConfig[booking.status] || statusConfig.PENDING;
 
+  // Mirrors the server's state machine: PENDING -> CONFIRMED -> COMPLETED, PENDING -> CANCELLED
+  const NEXT_STATUSES = { PENDING: ["CONFIRMED", "CANCELLED"], CONFIRMED: ["COMPLETED"] };
+  const statusKey = String(booking.status || "").toUpperCase();
+  const canMoveTo = (status) =>
+    status === statusKey || (NEXT_STATUSES[statusKey] || []).includes(status);
+
   const handleStatusChange = async (newStatus) => {
     const confirmed = await toast.confirm({
       title: "Update Status",
@@ -192,10 +198,10 @@ export default function BookingDetailsCard({
                 disabled={isUpdating}
                 className="bdc-status-select"
               >
-                <option value="PENDING">⏳ Pending</option>
-                <option value="CONFIRMED">✓ Confirmed</option>
-                <option value="COMPLETED">★ Completed</option>
-                <option value="CANCELLED">✕ Cancelled</option>
+                <option value="PENDING" disabled={!canMoveTo("PENDING")}>⏳ Pending</option>
+                <option value="CONFIRMED" disabled={!canMoveTo("CONFIRMED")}>✓ Confirmed</option>
+                <option value="COMPLETED" disabled={!canMoveTo("COMPLETED")}>★ Completed</option>
+                <option value="CANCELLED" disabled={!canMoveTo("CANCELLED")}>✕ Cancelled</option>
               </select>
               <FaChevronDown className="bdc-select-arrow" />
             </div>
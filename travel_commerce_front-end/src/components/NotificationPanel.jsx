@@ -5,6 +5,7 @@ import {
   markAsRead,
   markAllAsRead,
   clearAllNotifications,
+  openNotificationStream,
 } from "../api/notificationApi";
 import "../styles/NotificationPanel.css";
 
@@ -90,12 +91,76 @@ export default function NotificationPanel() {
     }
   }, []);
 
-  /* ─── Poll unread count every 30s ─── */
+  /* ─── Live updates over SSE; poll every 30s only when the stream is unavailable ─── */
   useEffect(() => {
-    fetchUnreadCount();
-    const interval = setInterval(fetchUnreadCount, 30000);
-    return () => clearInterval(interval);
-  }, [fetchUnreadCount]);
+    let interval = null;
+    let source = null;
+    let retryTimer = null;
+    let failures = 0;
+    let lastEventId = null;
+    let stopped = false;
+
+    const startPolling = () => {
+      if (interval) return;
+      fetchUnreadCount();
+      interval = setInterval(fetchUnreadCount, 30000);
+    };
+
+    // Each connect uses a fresh stream ticket, so the browser's own reconnect (which would
+    // resend an expired ticket) is replaced by ours; lastEventId replays what was missed.
+    const connect = async () => {
+      let next;
+      try {
+        next = await openNotificationStream(lastEventId);
+      } catch {
+        next = null;
+      }
+      if (stopped) {
+        next?.close();
+        return;
+      }
+      if (!next) {
+        startPolling();
+        return;
+      }
+      source = next;
+      source.onopen = () => {
+        failures = 0;
+      };
+      source.addEventListener("unread-count", (e) => {
+        setUnreadCount(JSON.parse(e.data).count || 0);
+      });
+      // Too much was missed to replay; reload the list and continue from the newest id.
+      source.addEventListener("resync", (e) => {
+        if (e.lastEventId) lastEventId = e.lastEventId;
+        fetchNotifications();
+      });
+      source.addEventListener("notification", (e) => {
+        if (e.lastEventId) lastEventId = e.lastEventId;
+        const notification = JSON.parse(e.data);
+        setNotifications((prev) =>
+          prev.some((n) => n.id === notification.id) ? prev : [notification, ...prev]
+        );
+      });
+      source.onerror = () => {
+        source.close();
+        failures += 1;
+        if (failures > 5) {
+          startPolling();
+          return;
+        }
+        retryTimer = setTimeout(connect, 2000 * failures);
+      };
+    };
+
+    connect();
+    return () => {
+      stopped = true;
+      source?.close();
+      clearTimeout(retryTimer);
+      clearInterval(interval);
+    };
+  }, [fetchUnreadCount, fetchNotifications]);
 
   /* ─── When panel opens, load full list ─── */
   useEffect(() => {
@@ -5,7 +5,7 @@ import { useToast } from "../../context/ToastContext";
 import Navbar from "../../components/Navbar";
 import Footer from "../../components/Footer";
 import NotificationPanel from "../../components/NotificationPanel";
-import { adminSendNotification, adminBroadcast } from "../../api/notificationApi";
+import { adminSendNotification, adminBroadcast, getBroadcastJob } from "../../api/notificationApi";
 import "../../styles/AdminDashboard.css"; 
 
 export default function AdminDashboard() {
@@ -23,6 +23,7 @@ export default function AdminDashboard() {
     const [notifMessage, setNotifMessage] = useState("");
     const [broadcastMessage, setBroadcastMessage] = useState("");
     const [broadcastTarget, setBroadcastTarget] = useState("ALL");
+    const [broadcastJob, setBroadcastJob] = useState(null);
     const [notifSending, setNotifSending] = useState(false);
 
     // 1. LOAD DATA
@@ -447,9 +448,20 @@ export default function AdminDashboard() {
         setNotifSending(true);
         try {
             const res = await adminBroadcast(broadcastMessage.trim(), broadcastTarget);
-            const count = res.data?.data?.recipientCount || 0;
-            toast.success(`Broadcast sent to ${count} users!`);
+            let job = res.data?.data?.job;
+            setBroadcastJob(job);
             setBroadcastMessage("");
+            // The server sends in the background; poll its progress until the job finishes
+            while (job && (job.status === "QUEUED" || job.status === "RUNNING")) {
+                await new Promise((resolve) => setTimeout(resolve, 1000));
+                job = (await getBroadcastJob(job.jobId)).data?.data?.job;
+                setBroadcastJob(job);
+            }
+            if (job?.status === "COMPLETED") {
+                toast.success(`Broadcast sent to ${job.sent} users!`);
+            } else {
+                toast.error(`Broadcast failed${job?.error ? `: ${job.error}` : ""}`);
+            }
         } catch (err) {
             console.error(err);
             toast.error("Failed to send broadcast");
@@ -550,6 +562,13 @@ export default function AdminDashboard() {
                         >
                             {notifSending ? 'Sending...' : '📣 Broadcast'}
                         </button>
+                        {broadcastJob && (
+                            <p style={{margin: 0, fontSize: '13px', color: '#92400e'}}>
+                                {broadcastJob.status === 'COMPLETED' || broadcastJob.status === 'FAILED'
+                                    ? `Last broadcast ${broadcastJob.status.toLowerCase()}: ${broadcastJob.sent} of ${broadcastJob.total} sent`
+                                    : `Sending... ${broadcastJob.sent} of ${broadcastJob.total || '?'} users`}
+                            </p>
+                        )}
                     </div>
                 </div>
             </div>
@@ -40,6 +40,7 @@ const PRICE_UNITS_BY_CATEGORY = {
 };
 import { 
     createBooking, 
+    newIdempotencyKey,
     getMyBookings, 
     cancelBooking, 
     hideBooking,
@@ -98,6 +99,9 @@ export default function TravellerDashboard() {
     const [bookings, setBookings] = useState([]);
     const [showBookingModal, setShowBookingModal] = useState(false);
     const [isSubmittingBooking, setIsSubmittingBooking] = useState(false);
+    // Idempotency key of the booking submission in flight: { key, payload }; reused when the same
+    // form data is retried so the server books it once
+    const [bookingKey, setBookingKey] = useState(null);
     
     // Review states
     const [reviews, setReviews] = useState([]);
@@ -338,7 +342,8 @@ export default function TravellerDashboard() {
             window.open(selectedPost.externalBookingUrl, '_blank', 'noopener,noreferrer');
             toast.info("Redirecting to provider's booking site...");
         } else {
-            // Show internal booking modal
+            // Show internal booking modal (a new form starts without an idempotency key)
+            setBookingKey(null);
             setShowBookingModal(true);
         }
     };
@@ -376,14 +381,23 @@ export default function TravellerDashboard() {
     };
 
     const handleSubmitBooking = async (bookingData) => {
+        if (isSubmittingBooking) return;
         setIsSubmittingBooking(true);
+        const payload = JSON.stringify(bookingData);
+        const key = bookingKey && bookingKey.payload === payload ? bookingKey.key : newIdempotencyKey();
+        setBookingKey({ key, payload });
         try {
-            await createBooking(bookingData);
+            await createBooking(bookingData, key);
             toast.success("Booking created successfully!");
             setShowBookingModal(false);
+            setBookingKey(null);
             fetchMyBookings();
         } catch (error) {
             console.error("Booking failed:", error);
+            // Keep the key when the outcome is unknown (no response), the server gave up (5xx) or the
+            // first attempt is still running (409); any other answer is final, so a resubmit gets a new key
+            const status = error.response?.status;
+            if (status && status < 500 && status !== 409) setBookingKey(null);
             toast.error("Failed to create booking");
         } finally {
             setIsSubmittingBooking(false);